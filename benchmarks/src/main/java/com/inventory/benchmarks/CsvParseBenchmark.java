@@ -0,0 +1,76 @@
+package com.inventory.benchmarks;
+
+import com.inventory.service.SalesCsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Upload CSV parsing: the full chunked parse used by imports and the head-only parse behind the preview.
+// parallelism 0 keeps the parser's default of one thread per core.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+    private static final long SEED = 42;
+    private static final int ITEMS = 100;
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"0", "1"})
+    private int parallelism;
+
+    private Path file;
+    private SalesCsvParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("sales-bench", ".csv");
+        SyntheticData.writeCsv(file, ITEMS, Math.max(1, rows / ITEMS), SEED);
+        parser = new SalesCsvParser();
+        if (parallelism > 0) {
+            parser.setParallelism(parallelism);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long parse() throws IOException, InterruptedException {
+        long[] quantity = new long[1];
+        parser.parse(file, chunk -> {
+            // Touch every row so the parsed columns are not dead code
+            for (int i = 0; i < chunk.size(); i++) {
+                quantity[0] += chunk.quantity(i);
+            }
+            return true;
+        });
+        return quantity[0];
+    }
+
+    @Benchmark
+    public int parsePreview() throws IOException {
+        return SalesCsvParser.parseHead(file, 64 * 1024).size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.inventory.benchmarks;
+
+import com.inventory.model.ForecastResult;
+import com.inventory.model.SalesData;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// forecastNextMonth with and without a cached result, getForecastResults, and forecastAll over the
+// whole catalogue. Fitted state is dropped before each uncached call so every call refits.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForecastBenchmark {
+    private static final long SEED = 42;
+    private static final int ITEM_ID = 1;
+
+    @Param({"10", "500"})
+    private int items;
+
+    @Param({"90", "365", "1825"})
+    private int historyDays;
+
+    @Param({"linear"})
+    private String model;
+
+    private DatabaseService db;
+    private ForecastService forecastService;
+    private List<SalesData> history;
+    private List<Integer> singleItem;
+    private List<Integer> allItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = SyntheticData.sampleDatabase(items, historyDays, SEED);
+        // No state store, so nothing is written to disk between calls
+        forecastService = new ForecastService(db, null);
+        forecastService.setModel(model);
+        history = db.getSalesHistory(ITEM_ID);
+        singleItem = Collections.singletonList(ITEM_ID);
+        allItems = new ArrayList<>();
+        for (int id = 1; id <= items; id++) {
+            allItems.add(id);
+        }
+        forecastService.forecastNextMonth(ITEM_ID, history);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        forecastService.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> fitNextMonth() {
+        forecastService.invalidateAll(singleItem);
+        return forecastService.forecastNextMonth(ITEM_ID, history);
+    }
+
+    @Benchmark
+    public Map<String, Object> cachedNextMonth() {
+        return forecastService.forecastNextMonth(ITEM_ID, history);
+    }
+
+    @Benchmark
+    public List<ForecastResult> forecastResults() {
+        return forecastService.getForecastResults(ITEM_ID, history);
+    }
+
+    // Reads the history like a dashboard refresh does, through the sample-mode database
+    @Benchmark
+    public List<ForecastResult> forecastResultsWithRead() {
+        return forecastService.getForecastResults(ITEM_ID, db.getSalesHistory(ITEM_ID));
+    }
+
+    @Benchmark
+    public Map<Integer, Map<String, Object>> forecastAll() {
+        forecastService.invalidateAll(allItems);
+        return forecastService.forecastAll(allItems);
+    }
+}
@@ -0,0 +1,96 @@
+package com.inventory.benchmarks;
+
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+import com.inventory.service.ReportFormat;
+import com.inventory.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Full report generation in each format. With coldForecasts every item is refitted while the report is
+// written, as on the first export after new data; otherwise forecasts come from the cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ReportBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"50", "1000"})
+    private int items;
+
+    @Param({"365"})
+    private int historyDays;
+
+    @Param({"EXCEL", "CSV", "COLUMNAR"})
+    private ReportFormat format;
+
+    @Param({"false", "true"})
+    private boolean coldForecasts;
+
+    private ForecastService forecastService;
+    private ReportService reportService;
+    private List<Integer> allItems;
+    private Path directory;
+    private String reportPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        DatabaseService db = SyntheticData.sampleDatabase(items, historyDays, SEED);
+        forecastService = new ForecastService(db, null);
+        reportService = new ReportService(db, forecastService);
+        allItems = new ArrayList<>();
+        for (int id = 1; id <= items; id++) {
+            allItems.add(id);
+        }
+        directory = Files.createTempDirectory("report-bench");
+        reportPath = directory.resolve("report." + format.getExtension()).toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void dropForecasts() {
+        if (coldForecasts) {
+            forecastService.invalidateAll(allItems);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        forecastService.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public ReportService.Timings generateReport() {
+        ReportService.Timings timings = reportService.generateReport(reportPath, format);
+        if (timings == null) {
+            throw new IllegalStateException("Report generation failed");
+        }
+        return timings;
+    }
+}
@@ -0,0 +1,101 @@
+package com.inventory.benchmarks;
+
+import com.inventory.model.InventoryItem;
+import com.inventory.model.SalesData;
+import com.inventory.service.DatabaseService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// Deterministic catalogue and daily sales for benchmarks: a weekly pattern, a slow trend and noise per item,
+// one row per item and day ending yesterday. The same seed always gives the same data.
+public final class SyntheticData {
+    private static final String[] CATEGORIES = {"Electronics", "Furniture", "Office", "Kitchen", "Outdoor"};
+
+    private SyntheticData() {
+    }
+
+    public static List<InventoryItem> items(int count, long seed) {
+        Random random = new Random(seed);
+        List<InventoryItem> items = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            int reorderLevel = 2 + random.nextInt(10);
+            items.add(new InventoryItem(id, "Product " + id, random.nextInt(reorderLevel * 4 + 1),
+                    5 + random.nextInt(1000) + 0.99, reorderLevel, CATEGORIES[id % CATEGORIES.length]));
+        }
+        return items;
+    }
+
+    public static Map<Integer, List<SalesData>> history(List<InventoryItem> items, int days, long seed) {
+        Random random = new Random(seed);
+        LocalDate first = LocalDate.now().minusDays(days);
+        Map<Integer, List<SalesData>> history = new LinkedHashMap<>();
+        int rowId = 1;
+        for (InventoryItem item : items) {
+            double base = 2 + random.nextDouble() * 20;
+            double trend = (random.nextDouble() - 0.3) * base / Math.max(1, days);
+            List<SalesData> sales = new ArrayList<>(days);
+            for (int d = 0; d < days; d++) {
+                LocalDate date = first.plusDays(d);
+                int quantity = quantity(random, base, trend, d, date);
+                sales.add(new SalesData(rowId++, item.getId(), item.getName(), quantity,
+                        quantity * item.getPrice(), date));
+            }
+            history.put(item.getId(), sales);
+        }
+        return history;
+    }
+
+    // A sample-mode DatabaseService serving the generated catalogue, so no MySQL is needed
+    public static DatabaseService sampleDatabase(int itemCount, int days, long seed) {
+        List<InventoryItem> items = items(itemCount, seed);
+        DatabaseService db = new DatabaseService();
+        db.loadSampleData(items, history(items, days, seed));
+        return db;
+    }
+
+    // Writes the same shape of data as an upload CSV (product, date, quantity, revenue, sold, remaining)
+    public static Path writeCsv(Path file, int itemCount, int days, long seed) throws IOException {
+        Random random = new Random(seed);
+        LocalDate first = LocalDate.now().minusDays(days);
+        double[] base = new double[itemCount];
+        double[] trend = new double[itemCount];
+        int[] remaining = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            base[i] = 2 + random.nextDouble() * 20;
+            trend[i] = (random.nextDouble() - 0.3) * base[i] / Math.max(1, days);
+            remaining[i] = 1000 + random.nextInt(1000);
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("product_name,date,quantity,revenue,sold,remaining\n");
+            for (int d = 0; d < days; d++) {
+                LocalDate date = first.plusDays(d);
+                for (int i = 0; i < itemCount; i++) {
+                    int quantity = quantity(random, base[i], trend[i], d, date);
+                    int sold = Math.min(quantity, remaining[i]);
+                    remaining[i] = remaining[i] - sold + (remaining[i] < 50 ? 500 : 0);
+                    out.write(String.format(Locale.ROOT, "Product %d,%s,%d,%.2f,%d,%d%n",
+                            i + 1, date, quantity, quantity * 19.99, sold, remaining[i]));
+                }
+            }
+        }
+        return file;
+    }
+
+    private static int quantity(Random random, double base, double trend, int day, LocalDate date) {
+        double weekly = date.getDayOfWeek().getValue() >= 6 ? 1.3 : 1.0;
+        double value = (base + trend * day) * weekly + random.nextGaussian() * base * 0.2;
+        return Math.max(0, (int) Math.round(value));
+    }
+}
@@ -1,5 +1,6 @@
 package com.inventory;
 
+import com.inventory.service.MetricsExporter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -7,9 +8,13 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+    private MetricsExporter metricsExporter;
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        // Opt-in Prometheus endpoint and dump file, see MetricsExporter
+        metricsExporter = MetricsExporter.fromSystemProperties();
+
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/dashboard.fxml"));
         Parent root = loader.load();
         
@@ -18,6 +23,13 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
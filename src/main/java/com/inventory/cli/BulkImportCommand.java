@@ -0,0 +1,505 @@
+package com.inventory.cli;
+
+import com.inventory.model.InventoryItem;
+import com.inventory.model.SalesData;
+import com.inventory.service.ConnectionPool;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+import com.inventory.service.SalesCsvParser;
+import com.inventory.service.SalesHistoryWriter;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Headless backfill of sales history from many CSV exports. Files are parsed concurrently, product names
+// are mapped onto the existing inventory IDs (unknown names are added to inventory_items first and use the
+// generated IDs), and rows are written by several writer threads, each on its own pooled connection. Every
+// item is owned by one writer, so writes for the same item never race.
+//
+//   java -cp ... com.inventory.cli.BulkImportCommand [options] <dir | file | glob>...
+public class BulkImportCommand {
+
+    public static final class FileStats {
+        private final Path file;
+        private final long bytes;
+        private final long rows;
+        private final long rejected;
+        private final List<SalesCsvParser.ParseError> errors;
+
+        FileStats(Path file, long bytes, long rows, long rejected, List<SalesCsvParser.ParseError> errors) {
+            this.file = file;
+            this.bytes = bytes;
+            this.rows = rows;
+            this.rejected = rejected;
+            this.errors = errors;
+        }
+
+        public Path getFile() { return file; }
+        public long getBytes() { return bytes; }
+        public long getRows() { return rows; }
+        public long getRejected() { return rejected; }
+        public List<SalesCsvParser.ParseError> getErrors() { return errors; }
+    }
+
+    public static final class Stats {
+        private final List<FileStats> files;
+        private final int products;
+        private final int newProducts;
+        private final long rowsWritten;
+        private final long batches;
+        private final long elapsedMillis;
+
+        Stats(List<FileStats> files, int products, int newProducts, long rowsWritten, long batches,
+              long elapsedMillis) {
+            this.files = files;
+            this.products = products;
+            this.newProducts = newProducts;
+            this.rowsWritten = rowsWritten;
+            this.batches = batches;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<FileStats> getFiles() { return files; }
+        public int getProducts() { return products; }
+        public int getNewProducts() { return newProducts; }
+        public long getRowsWritten() { return rowsWritten; }
+        public long getBatches() { return batches; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public long getRows() {
+            return files.stream().mapToLong(FileStats::getRows).sum();
+        }
+
+        public long getRejected() {
+            return files.stream().mapToLong(FileStats::getRejected).sum();
+        }
+
+        public long getBytes() {
+            return files.stream().mapToLong(FileStats::getBytes).sum();
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Files:      %d (%.1f MB)%n", files.size(), getBytes() / (1024.0 * 1024.0)));
+            sb.append(String.format("Rows:       %,d parsed, %,d written in %,d batches%n", getRows(), rowsWritten, batches));
+            sb.append(String.format("Rejected:   %,d%n", getRejected()));
+            sb.append(String.format("Products:   %d (%d new)%n", products, newProducts));
+            sb.append(String.format("Elapsed:    %.2f s (%,.0f rows/s, %.1f MB/s)",
+                    seconds, getRows() / seconds, getBytes() / (1024.0 * 1024.0) / seconds));
+            for (FileStats file : files) {
+                if (file.getRejected() > 0) {
+                    sb.append(String.format("%n  %s: %,d rejected", file.getFile(), file.getRejected()));
+                    file.getErrors().stream().limit(3).forEach(e -> sb.append("\n    ").append(e));
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final List<SalesData> END_OF_INPUT = Collections.emptyList();
+    private static final int MAX_ERRORS_PER_FILE = 20;
+
+    private final DatabaseService dbService;
+    private final ForecastService forecastService;
+    private final SalesHistoryWriter salesWriter;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private int writerThreads = 4;
+    private int batchSize = 2000;
+    private boolean merge;
+
+    // forecastService may be null; when set, fitted state for imported items is dropped afterwards
+    public BulkImportCommand(DatabaseService dbService, ForecastService forecastService) {
+        this.dbService = dbService;
+        this.forecastService = forecastService;
+        this.salesWriter = new SalesHistoryWriter(dbService);
+    }
+
+    // How appended batches are written and how many rows go into each commit
+    public SalesHistoryWriter getSalesWriter() {
+        return salesWriter;
+    }
+
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = Math.max(1, parserThreads);
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = Math.max(1, writerThreads);
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Merge on (item, date) instead of appending, for imports that overlap stored history
+    public void setMerge(boolean merge) {
+        this.merge = merge;
+    }
+
+    public Stats run(List<String> inputs) throws IOException {
+        List<Path> files = resolveInputs(inputs);
+        if (files.isEmpty()) {
+            throw new IOException("No CSV files matched " + inputs);
+        }
+        long start = System.currentTimeMillis();
+
+        // Seed the mapping with the inventory, so every store's export lands on the same item IDs
+        Map<String, Integer> productIds = new ConcurrentHashMap<>();
+        for (InventoryItem item : dbService.getAllInventoryItems()) {
+            productIds.put(item.getName(), item.getId());
+        }
+        int knownProducts = productIds.size();
+        Set<Integer> touchedItems = ConcurrentHashMap.newKeySet();
+
+        List<BlockingQueue<List<SalesData>>> queues = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        AtomicLong rowsWritten = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        AtomicReference<RuntimeException> writeFailure = new AtomicReference<>();
+        for (int w = 0; w < writerThreads; w++) {
+            BlockingQueue<List<SalesData>> queue = new ArrayBlockingQueue<>(4);
+            queues.add(queue);
+            Thread writer = new Thread(() -> drain(queue, rowsWritten, batches, writeFailure),
+                    "bulk-import-writer-" + w);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+
+        // Few large files get chunk-level parallelism, many small files get one parser thread each
+        int concurrentFiles = Math.min(parserThreads, files.size());
+        int chunkParallelism = Math.max(1, parserThreads / concurrentFiles);
+        ExecutorService filePool = Executors.newFixedThreadPool(concurrentFiles, r -> {
+            Thread t = new Thread(r, "bulk-import-parser");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<FileStats> fileStats = new ArrayList<>();
+        try {
+            List<Future<FileStats>> results = new ArrayList<>();
+            for (Path file : files) {
+                results.add(filePool.submit(() -> importFile(file, chunkParallelism, productIds, touchedItems,
+                        queues, writeFailure)));
+            }
+            for (Future<FileStats> result : results) {
+                fileStats.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } finally {
+            filePool.shutdownNow();
+            for (BlockingQueue<List<SalesData>> queue : queues) {
+                putUninterruptibly(queue, END_OF_INPUT);
+            }
+            for (Thread writer : writers) {
+                joinUninterruptibly(writer);
+            }
+            if (forecastService != null) {
+                forecastService.invalidateAll(touchedItems);
+            }
+        }
+
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+        return new Stats(fileStats, productIds.size(), productIds.size() - knownProducts, rowsWritten.get(),
+                batches.get(), System.currentTimeMillis() - start);
+    }
+
+    private FileStats importFile(Path file, int chunkParallelism, Map<String, Integer> productIds,
+                                 Set<Integer> touchedItems, List<BlockingQueue<List<SalesData>>> queues,
+                                 AtomicReference<RuntimeException> writeFailure) throws IOException, InterruptedException {
+        SalesCsvParser parser = new SalesCsvParser();
+        parser.setParallelism(chunkParallelism);
+
+        // One pending batch per writer, so each batch goes to the writer that owns its items
+        List<List<SalesData>> pending = new ArrayList<>();
+        for (int w = 0; w < queues.size(); w++) {
+            pending.add(new ArrayList<>(batchSize));
+        }
+        long[] counts = new long[2]; // rows, rejected
+        List<SalesCsvParser.ParseError> errors = new ArrayList<>();
+
+        parser.parse(file, chunk -> {
+            Set<String> newProducts = new LinkedHashSet<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!productIds.containsKey(chunk.product(i))) {
+                    newProducts.add(chunk.product(i));
+                }
+            }
+            if (!newProducts.isEmpty()) {
+                addProducts(productIds, newProducts);
+            }
+
+            for (int i = 0; i < chunk.size(); i++) {
+                String productName = chunk.product(i);
+                int productId = productIds.get(productName);
+                touchedItems.add(productId);
+
+                SalesData data = new SalesData(0, productId, productName, chunk.quantity(i), chunk.revenue(i),
+                        LocalDate.ofEpochDay(chunk.epochDay(i)), chunk.sold(i), chunk.remaining(i));
+
+                int w = productId % queues.size();
+                List<SalesData> batch = pending.get(w);
+                batch.add(data);
+                if (batch.size() >= batchSize) {
+                    queues.get(w).put(batch); // Blocks while that writer is behind
+                    pending.set(w, new ArrayList<>(batchSize));
+                }
+            }
+            counts[0] += chunk.size();
+            counts[1] += chunk.getErrorCount();
+            for (SalesCsvParser.ParseError error : chunk.getErrors()) {
+                if (errors.size() < MAX_ERRORS_PER_FILE) errors.add(error);
+            }
+            return writeFailure.get() == null;
+        });
+
+        for (int w = 0; w < queues.size(); w++) {
+            if (!pending.get(w).isEmpty()) {
+                queues.get(w).put(pending.get(w));
+            }
+        }
+        return new FileStats(file, Files.size(file), counts[0], counts[1], errors);
+    }
+
+    // One inventory insert per chunk that names new products. Serialised so two files that both name a new
+    // product do not add it twice; names another file added in the meantime are skipped.
+    private synchronized void addProducts(Map<String, Integer> productIds, Set<String> names) {
+        names.removeIf(productIds::containsKey);
+        if (!names.isEmpty()) {
+            productIds.putAll(dbService.createInventoryItems(names));
+        }
+    }
+
+    private void drain(BlockingQueue<List<SalesData>> queue, AtomicLong rowsWritten, AtomicLong batches,
+                       AtomicReference<RuntimeException> writeFailure) {
+        while (true) {
+            List<SalesData> batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (batch == END_OF_INPUT) {
+                return;
+            }
+            if (writeFailure.get() != null) {
+                continue; // Keep draining so parsers are not left blocked
+            }
+            try {
+                if (merge) {
+                    Map<Integer, List<SalesData>> byItem = batch.stream()
+                            .collect(Collectors.groupingBy(SalesData::getItemId));
+                    byItem.forEach(dbService::mergeSalesHistory);
+                } else {
+                    salesWriter.write(batch);
+                }
+                rowsWritten.addAndGet(batch.size());
+                batches.incrementAndGet();
+            } catch (RuntimeException e) {
+                writeFailure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    // Directories contribute their *.csv files; arguments with *, ?, [ or { are globs relative to
+    // the directory part before the first wildcard
+    public static List<Path> resolveInputs(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            int wildcard = indexOfWildcard(input);
+            if (wildcard >= 0) {
+                int slash = Math.max(input.lastIndexOf('/', wildcard), input.lastIndexOf('\\', wildcard));
+                Path base = slash >= 0 ? Paths.get(input.substring(0, slash + 1)) : Paths.get(".");
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input.substring(slash + 1));
+                try (Stream<Path> walk = Files.walk(base)) {
+                    walk.filter(Files::isRegularFile)
+                        .filter(path -> matcher.matches(base.relativize(path)))
+                        .sorted()
+                        .forEach(files::add);
+                }
+                continue;
+            }
+
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> list = Files.list(path)) {
+                    list.filter(Files::isRegularFile)
+                        .filter(p -> p.getFileName().toString().toLowerCase().endsWith(".csv"))
+                        .sorted()
+                        .forEach(files::add);
+                }
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                throw new IOException("No such file or directory: " + input);
+            }
+        }
+        return files.stream().distinct().collect(Collectors.toList());
+    }
+
+    private static int indexOfWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return i;
+        }
+        return -1;
+    }
+
+    private static void putUninterruptibly(BlockingQueue<List<SalesData>> queue, List<SalesData> item) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(item);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // Accepts the enum names in any case, with - or _ as separator
+    static SalesHistoryWriter.Mode parseMode(String value) {
+        return SalesHistoryWriter.Mode.valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: BulkImportCommand [options] <dir | file.csv | glob>...");
+        System.err.println("  --jdbc-url URL     database to import into (default: sample data, nothing is persisted)");
+        System.err.println("  --user USER        database user (default root)");
+        System.err.println("  --password PASS    database password");
+        System.err.println("  --parsers N        parser threads (default: available processors)");
+        System.err.println("  --writers N        writer threads / connections (default 4)");
+        System.err.println("  --batch N          rows per write batch (default 2000)");
+        System.err.println("  --mode MODE        batch, multi-row or load-data (default multi-row)");
+        System.err.println("  --chunk N          rows per commit (default 5000)");
+        System.err.println("  --merge            merge on (item, date) instead of appending");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 on success, 1 on failure, 2 for bad arguments
+    public static int run(String[] args) {
+        List<String> inputs = new ArrayList<>();
+        String url = null;
+        String user = "root";
+        String password = "";
+        Integer parsers = null;
+        int writers = 4;
+        int batch = 2000;
+        boolean merge = false;
+        SalesHistoryWriter.Mode mode = SalesHistoryWriter.Mode.MULTI_ROW;
+        Integer chunk = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jdbc-url": url = args[++i]; break;
+                    case "--user": user = args[++i]; break;
+                    case "--password": password = args[++i]; break;
+                    case "--parsers": parsers = Integer.parseInt(args[++i]); break;
+                    case "--writers": writers = Integer.parseInt(args[++i]); break;
+                    case "--batch": batch = Integer.parseInt(args[++i]); break;
+                    case "--mode": mode = parseMode(args[++i]); break;
+                    case "--chunk": chunk = Integer.parseInt(args[++i]); break;
+                    case "--merge": merge = true; break;
+                    case "--help": printUsage(); return 0;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        inputs.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            printUsage();
+            return 2;
+        }
+        if (inputs.isEmpty()) {
+            printUsage();
+            return 2;
+        }
+
+        DatabaseService dbService;
+        if (url != null) {
+            if (mode == SalesHistoryWriter.Mode.LOAD_DATA) {
+                url = SalesHistoryWriter.withLocalInfile(url);
+            }
+            // One connection per writer, plus room for the inventory lookup
+            dbService = new DatabaseService(new ConnectionPool(url, user, password, 1, writers + 1, 60_000));
+        } else {
+            System.out.println("No --jdbc-url given, importing into sample data (nothing is persisted)");
+            dbService = new DatabaseService();
+        }
+
+        ForecastService forecastService = new ForecastService(dbService);
+        BulkImportCommand command = new BulkImportCommand(dbService, forecastService);
+        if (parsers != null) command.setParserThreads(parsers);
+        command.setWriterThreads(writers);
+        command.setBatchSize(batch);
+        command.setMerge(merge);
+        command.getSalesWriter().setMode(mode);
+        if (chunk != null) command.getSalesWriter().setChunkSize(chunk);
+
+        int exitCode = 0;
+        try {
+            System.out.println(command.run(inputs));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Bulk import failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            forecastService.shutdown();
+            dbService.close();
+        }
+        return exitCode;
+    }
+}
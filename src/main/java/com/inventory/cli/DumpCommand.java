@@ -0,0 +1,151 @@
+package com.inventory.cli;
+
+import com.inventory.service.ColumnarReportReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+// Prints a columnar (.icol) report as CSV, one section per dataset, or only checks that it reads back.
+// With --dataset the output has exactly the layout of the CSV report's file for that dataset, so
+// "dump --dataset forecast report.icol" can be compared byte for byte with report_forecast.csv.
+//
+//   java -cp ... com.inventory.cli.DumpCommand [--dataset NAME] [--check] <report.icol>
+public class DumpCommand {
+
+    private static void printUsage() {
+        System.err.println("Usage: DumpCommand [options] <report.icol>");
+        System.err.println("  --dataset NAME     print only this dataset (inventory, forecast or alerts) without a title line");
+        System.err.println("  --check            read the whole file, verify it against its footer and print row counts");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 on success, 1 on failure, 2 for bad arguments
+    public static int run(String[] args) {
+        String input = null;
+        String dataset = null;
+        boolean check = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dataset": dataset = args[++i]; break;
+                    case "--check": check = true; break;
+                    case "--help": printUsage(); return 0;
+                    default:
+                        if (args[i].startsWith("--") || input != null) {
+                            throw new IllegalArgumentException("Unexpected argument " + args[i]);
+                        }
+                        input = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            printUsage();
+            return 2;
+        }
+        if (input == null) {
+            printUsage();
+            return 2;
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        CsvVisitor visitor = new CsvVisitor(out, dataset, check);
+        try {
+            ColumnarReportReader.read(Paths.get(input), visitor);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Dump failed: " + e.getMessage());
+            return 1;
+        }
+        if (dataset != null && !visitor.found) {
+            System.err.println("No dataset " + dataset + " in " + input);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static final class CsvVisitor implements ColumnarReportReader.Visitor {
+        private final Writer out;
+        private final String only;
+        private final boolean check;
+        private final StringBuilder line = new StringBuilder(128);
+        private boolean printing;
+        private boolean found;
+        private boolean first = true;
+
+        CsvVisitor(Writer out, String only, boolean check) {
+            this.out = out;
+            this.only = only;
+            this.check = check;
+        }
+
+        @Override
+        public void beginDataset(String name, List<String> columns) throws IOException {
+            printing = !check && (only == null || only.equals(name));
+            found |= name.equals(only);
+            if (!printing) {
+                return;
+            }
+            if (only == null) {
+                out.write(first ? "" : "\n");
+                out.write("# " + name + "\n");
+                first = false;
+            }
+            out.write(String.join(",", columns));
+            out.write('\n');
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            if (!printing) {
+                return;
+            }
+            line.setLength(0);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) line.append(',');
+                if (values[i] instanceof String) {
+                    appendText((String) values[i]);
+                } else {
+                    line.append(values[i]);
+                }
+            }
+            out.append(line).append('\n');
+        }
+
+        @Override
+        public void endDataset(String name, long rows) throws IOException {
+            if (check) {
+                out.write(String.format("%s: %,d rows%n", name, rows));
+            }
+        }
+
+        // Same quoting as the CSV report: only values that need it
+        private void appendText(String value) {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+            line.append('"');
+        }
+    }
+}
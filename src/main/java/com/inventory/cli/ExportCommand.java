@@ -0,0 +1,88 @@
+package com.inventory.cli;
+
+import com.inventory.service.ConnectionPool;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+import com.inventory.service.ReportFormat;
+import com.inventory.service.ReportService;
+
+// Writes the inventory, forecast and alerts report without the UI.
+//
+//   java -cp ... com.inventory.cli.ExportCommand [--format excel|csv|columnar] [--jdbc-url URL] <output>
+public class ExportCommand {
+
+    private static void printUsage() {
+        System.err.println("Usage: ExportCommand [options] <output file>");
+        System.err.println("  --format FORMAT    excel, csv or columnar (default: from the file extension)");
+        System.err.println("  --model MODEL      forecast model (default linear)");
+        System.err.println("  --jdbc-url URL     database to read (default: sample data)");
+        System.err.println("  --user USER        database user (default root)");
+        System.err.println("  --password PASS    database password");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 on success, 1 on failure, 2 for bad arguments
+    public static int run(String[] args) {
+        String output = null;
+        ReportFormat format = null;
+        String model = null;
+        String url = null;
+        String user = "root";
+        String password = "";
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format": format = ReportFormat.parse(args[++i]); break;
+                    case "--model": model = args[++i]; break;
+                    case "--jdbc-url": url = args[++i]; break;
+                    case "--user": user = args[++i]; break;
+                    case "--password": password = args[++i]; break;
+                    case "--help": printUsage(); return 0;
+                    default:
+                        if (args[i].startsWith("--") || output != null) {
+                            throw new IllegalArgumentException("Unexpected argument " + args[i]);
+                        }
+                        output = args[i];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            printUsage();
+            return 2;
+        }
+        if (output == null) {
+            printUsage();
+            return 2;
+        }
+
+        DatabaseService dbService = url != null
+                ? new DatabaseService(new ConnectionPool(url, user, password, 1, 4, 60_000))
+                : new DatabaseService();
+        ForecastService forecastService = new ForecastService(dbService);
+        if (model != null) {
+            try {
+                forecastService.setModel(model);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                printUsage();
+                forecastService.shutdown();
+                dbService.close();
+                return 2;
+            }
+        }
+
+        ReportService.Timings timings;
+        try {
+            ReportService reportService = new ReportService(dbService, forecastService);
+            timings = reportService.generateReport(output, format != null ? format : ReportFormat.forFileName(output));
+        } finally {
+            forecastService.shutdown();
+            dbService.close();
+        }
+        return timings != null ? 0 : 1;
+    }
+}
@@ -0,0 +1,173 @@
+package com.inventory.cli;
+
+import com.inventory.model.InventoryItem;
+import com.inventory.service.ConnectionPool;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Forecasts next month for all or selected items and prints a summary per item, optionally writing
+// the daily values to a CSV file.
+//
+//   java -cp ... com.inventory.cli.ForecastCommand [--items 1,2,3] [--model forest] [--csv out.csv]
+public class ForecastCommand {
+
+    private static void printUsage() {
+        System.err.println("Usage: ForecastCommand [options]");
+        System.err.println("  --items A,B,...    item IDs to forecast (default: every inventory item)");
+        System.err.println("  --model MODEL      linear, forest, holtwinters or svm (default linear)");
+        System.err.println("  --seed N           seed for trained models (default 42)");
+        System.err.println("  --parallelism N    forecast threads (default: available processors)");
+        System.err.println("  --csv FILE         also write daily forecasts to FILE");
+        System.err.println("  --jdbc-url URL     database to read (default: sample data)");
+        System.err.println("  --user USER        database user (default root)");
+        System.err.println("  --password PASS    database password");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 on success, 1 on failure, 2 for bad arguments
+    public static int run(String[] args) {
+        List<Integer> itemIds = null;
+        String model = null;
+        Long seed = null;
+        Integer parallelism = null;
+        String csv = null;
+        String url = null;
+        String user = "root";
+        String password = "";
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--items":
+                        itemIds = new ArrayList<>();
+                        for (String id : args[++i].split(",")) {
+                            itemIds.add(Integer.parseInt(id.trim()));
+                        }
+                        break;
+                    case "--model": model = args[++i]; break;
+                    case "--seed": seed = Long.parseLong(args[++i]); break;
+                    case "--parallelism": parallelism = Integer.parseInt(args[++i]); break;
+                    case "--csv": csv = args[++i]; break;
+                    case "--jdbc-url": url = args[++i]; break;
+                    case "--user": user = args[++i]; break;
+                    case "--password": password = args[++i]; break;
+                    case "--help": printUsage(); return 0;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            printUsage();
+            return 2;
+        }
+
+        DatabaseService dbService = url != null
+                ? new DatabaseService(new ConnectionPool(url, user, password, 1, 4, 60_000))
+                : new DatabaseService();
+        ForecastService forecastService = new ForecastService(dbService);
+        if (model != null) {
+            try {
+                forecastService.setModel(model);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                printUsage();
+                forecastService.shutdown();
+                dbService.close();
+                return 2;
+            }
+        }
+        if (seed != null) forecastService.setSeed(seed);
+        if (parallelism != null) forecastService.setParallelism(parallelism);
+
+        try {
+            // Names come from the inventory; selected IDs missing from it are still forecast
+            Map<Integer, String> names = new LinkedHashMap<>();
+            for (InventoryItem item : dbService.getAllInventoryItems()) {
+                names.put(item.getId(), item.getName());
+            }
+            if (itemIds == null) {
+                itemIds = new ArrayList<>(names.keySet());
+            }
+
+            long start = System.nanoTime();
+            Map<Integer, Map<String, Object>> forecasts = forecastService.forecastAll(itemIds);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            print(System.out, itemIds, names, forecasts);
+            if (csv != null) {
+                writeCsv(csv, itemIds, names, forecasts);
+            }
+            System.out.printf("%d items forecast with the %s model in %.2f s%n",
+                    itemIds.size(), forecastService.getModel(), seconds);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Forecast failed: " + e.getMessage());
+            return 1;
+        } finally {
+            forecastService.shutdown();
+            dbService.close();
+        }
+    }
+
+    private static void print(PrintStream out, List<Integer> itemIds, Map<Integer, String> names,
+                              Map<Integer, Map<String, Object>> forecasts) {
+        out.printf("%8s  %-30s %12s %10s %9s%n", "ID", "Item", "Month total", "Per day", "Accuracy");
+        for (Integer itemId : itemIds) {
+            Map<String, Object> forecast = forecasts.get(itemId);
+            String name = names.getOrDefault(itemId, "");
+            if (forecast.isEmpty()) {
+                out.printf("%8d  %-30s %12s%n", itemId, name, "no data");
+                continue;
+            }
+            List<Double> daily = series(forecast, "forecast");
+            double total = 0;
+            for (double value : daily) {
+                total += value;
+            }
+            out.printf("%8d  %-30s %12.1f %10.2f %8.0f%%%n", itemId, name, total, total / daily.size(),
+                    (double) forecast.get("accuracy") * 100);
+        }
+    }
+
+    private static void writeCsv(String file, List<Integer> itemIds, Map<Integer, String> names,
+                                 Map<Integer, Map<String, Object>> forecasts) throws IOException {
+        LocalDate nextMonth = LocalDate.now().plusMonths(1);
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+            out.write("item_id,item,date,forecast,lower_bound,upper_bound,accuracy\n");
+            for (Integer itemId : itemIds) {
+                Map<String, Object> forecast = forecasts.get(itemId);
+                if (forecast.isEmpty()) continue;
+                List<Double> daily = series(forecast, "forecast");
+                List<Double> lower = series(forecast, "lowerBound");
+                List<Double> upper = series(forecast, "upperBound");
+                String name = names.getOrDefault(itemId, "").replace("\"", "\"\"");
+                for (int i = 0; i < daily.size(); i++) {
+                    out.write(itemId + ",\"" + name + "\"," + nextMonth.withDayOfMonth(i + 1) + ","
+                            + daily.get(i) + "," + lower.get(i) + "," + upper.get(i) + ","
+                            + forecast.get("accuracy") + "\n");
+                }
+            }
+        }
+    }
+
+    // forecastAll's maps hold the daily values under "forecast", "lowerBound" and "upperBound"
+    @SuppressWarnings("unchecked")
+    private static List<Double> series(Map<String, Object> forecast, String key) {
+        return (List<Double>) forecast.get(key);
+    }
+}
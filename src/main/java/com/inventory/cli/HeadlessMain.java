@@ -0,0 +1,78 @@
+package com.inventory.cli;
+
+import com.inventory.service.MetricsExporter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Entry point for servers without a display. Dispatches to the command-line tools; nothing here touches
+// the JavaFX toolkit or loads FXML, so it starts in a plain JVM.
+//
+//   java -cp "target/classes:target/lib/*" com.inventory.cli.HeadlessMain <command> [options]
+//
+// -Dinventory.metrics.port / -Dinventory.metrics.file export service metrics while the command runs.
+public class HeadlessMain {
+
+    private static void printUsage() {
+        System.err.println("Usage: HeadlessMain <command> [options]");
+        System.err.println("Commands:");
+        System.err.println("  forecast    forecast all or selected items            (ForecastCommand)");
+        System.err.println("  report      write the inventory/forecast/alerts report (ExportCommand)");
+        System.err.println("  import      bulk import sales CSV files                (BulkImportCommand)");
+        System.err.println("  benchmark   compare sales_history write modes          (WriterBenchmarkCommand)");
+        System.err.println("  dump        print or check a columnar (.icol) report     (DumpCommand)");
+        System.err.println("Run a command with --help for its options.");
+        System.err.println("Metrics: -D" + MetricsExporter.PORT_PROPERTY + "=<port> serves /metrics, -D"
+                + MetricsExporter.FILE_PROPERTY + "=<file> writes a dump");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    public static int run(String[] args) {
+        MetricsExporter metrics = null;
+        try {
+            metrics = MetricsExporter.fromSystemProperties();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Metrics export disabled: " + e.getMessage());
+        }
+        try {
+            return dispatch(args);
+        } finally {
+            // Writes the final dump
+            if (metrics != null) {
+                metrics.close();
+            }
+        }
+    }
+
+    private static int dispatch(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            return 2;
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "forecast":
+                return ForecastCommand.run(rest);
+            case "report":
+            case "export":
+                return ExportCommand.run(rest);
+            case "import":
+                return BulkImportCommand.run(rest);
+            case "benchmark":
+                return WriterBenchmarkCommand.run(rest);
+            case "dump":
+                return DumpCommand.run(rest);
+            case "help":
+            case "--help":
+                printUsage();
+                return 0;
+            default:
+                System.err.println("Unknown command " + args[0]);
+                printUsage();
+                return 2;
+        }
+    }
+}
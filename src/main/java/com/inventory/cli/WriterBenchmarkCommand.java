@@ -0,0 +1,153 @@
+package com.inventory.cli;
+
+import com.inventory.model.SalesData;
+import com.inventory.service.ConnectionPool;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.SalesHistoryWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Compares SalesHistoryWriter modes and chunk sizes on a real database. Synthetic rows are written under
+// item IDs from ITEM_ID_BASE upwards and deleted again before every run and at the end.
+//
+//   java -cp ... com.inventory.cli.WriterBenchmarkCommand --jdbc-url URL [--rows N] [--chunks 1000,5000]
+public class WriterBenchmarkCommand {
+
+    private static final int ITEM_ID_BASE = 2_000_000_000;
+    private static final int ITEMS = 1000;
+
+    private final DatabaseService dbService;
+
+    public WriterBenchmarkCommand(DatabaseService dbService) {
+        this.dbService = dbService;
+    }
+
+    static List<SalesData> syntheticRows(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<SalesData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int itemId = ITEM_ID_BASE + i % ITEMS;
+            int quantity = 1 + random.nextInt(20);
+            double revenue = Math.round(quantity * (5 + random.nextDouble() * 500) * 100) / 100.0;
+            rows.add(new SalesData(0, itemId, "Benchmark " + (i % ITEMS), quantity, revenue,
+                    start.plusDays(i / ITEMS)));
+        }
+        return rows;
+    }
+
+    // Returns rows per second for each repetition
+    public double[] run(List<SalesData> rows, SalesHistoryWriter.Mode mode, int chunkSize, int repetitions)
+            throws SQLException {
+        SalesHistoryWriter writer = new SalesHistoryWriter(dbService);
+        writer.setMode(mode);
+        writer.setChunkSize(chunkSize);
+
+        double[] rates = new double[repetitions];
+        for (int r = 0; r < repetitions; r++) {
+            deleteSyntheticRows();
+            long start = System.nanoTime();
+            writer.write(rows);
+            long elapsed = System.nanoTime() - start;
+            rates[r] = rows.size() / (elapsed / 1_000_000_000.0);
+        }
+        deleteSyntheticRows();
+        return rates;
+    }
+
+    private void deleteSyntheticRows() throws SQLException {
+        try (Connection conn = dbService.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM sales_history WHERE item_id >= ?")) {
+            stmt.setInt(1, ITEM_ID_BASE);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: WriterBenchmarkCommand --jdbc-url URL [options]");
+        System.err.println("  --user USER        database user (default root)");
+        System.err.println("  --password PASS    database password");
+        System.err.println("  --rows N           synthetic rows per run (default 200000)");
+        System.err.println("  --chunks A,B,...   rows per commit to compare (default 1000,5000,20000)");
+        System.err.println("  --modes A,B,...    modes to compare (default batch,multi-row,load-data)");
+        System.err.println("  --repeat N         runs per combination, best and median reported (default 3)");
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 on success, 1 on failure, 2 for bad arguments
+    public static int run(String[] args) {
+        String url = null;
+        String user = "root";
+        String password = "";
+        int rowCount = 200_000;
+        int[] chunks = {1000, 5000, 20_000};
+        List<SalesHistoryWriter.Mode> modes = Arrays.asList(SalesHistoryWriter.Mode.values());
+        int repetitions = 3;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jdbc-url": url = args[++i]; break;
+                    case "--user": user = args[++i]; break;
+                    case "--password": password = args[++i]; break;
+                    case "--rows": rowCount = Integer.parseInt(args[++i]); break;
+                    case "--chunks":
+                        chunks = Arrays.stream(args[++i].split(",")).mapToInt(c -> Integer.parseInt(c.trim())).toArray();
+                        break;
+                    case "--modes":
+                        modes = new ArrayList<>();
+                        for (String mode : args[++i].split(",")) {
+                            modes.add(BulkImportCommand.parseMode(mode));
+                        }
+                        break;
+                    case "--repeat": repetitions = Integer.parseInt(args[++i]); break;
+                    case "--help": printUsage(); return 0;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            printUsage();
+            return 2;
+        }
+        if (url == null) {
+            // Sample data mode has no database to measure
+            printUsage();
+            return 2;
+        }
+
+        DatabaseService dbService = new DatabaseService(new ConnectionPool(
+                SalesHistoryWriter.withLocalInfile(url), user, password, 1, 2, 60_000));
+        int exitCode = 0;
+        try {
+            WriterBenchmarkCommand benchmark = new WriterBenchmarkCommand(dbService);
+            List<SalesData> rows = syntheticRows(rowCount, 42);
+
+            System.out.printf("%-10s %10s %14s %14s%n", "mode", "chunk", "best rows/s", "median rows/s");
+            for (SalesHistoryWriter.Mode mode : modes) {
+                for (int chunk : chunks) {
+                    double[] rates = benchmark.run(rows, mode, chunk, repetitions);
+                    Arrays.sort(rates);
+                    System.out.printf("%-10s %10d %,14.0f %,14.0f%n", mode, chunk,
+                            rates[rates.length - 1], rates[rates.length / 2]);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Benchmark failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            dbService.close();
+        }
+        return exitCode;
+    }
+}
@@ -5,36 +5,51 @@ import com.inventory.model.SalesData;
 import com.inventory.model.ForecastResult;
 import com.inventory.service.DatabaseService;
 import com.inventory.service.ForecastService;
+import com.inventory.service.MetricsRegistry;
+import com.inventory.service.ReportFormat;
 import com.inventory.service.ReportService;
+import com.inventory.service.SalesIngestionService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
+import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 
 public class DashboardController {
     @FXML private TableView<InventoryItem> inventoryTable;
     @FXML private LineChart<Number, Number> forecastChart;
+    @FXML private TimelineChart timelineChart;
+    @FXML private CheckBox timelineToggle;
     @FXML private TableView<InventoryItem> alertsTable;
     @FXML private ComboBox<InventoryItem> itemSelector;
     @FXML private ComboBox<String> modelSelector;
     @FXML private Label accuracyLabel;
+    @FXML private ProgressIndicator loadingIndicator;
     @FXML private VBox chartContainer;
     @FXML private TableView<SalesData> currentSalesTable;
     @FXML private TableColumn<SalesData, String> currentSalesDateCol;
@@ -53,6 +68,7 @@ public class DashboardController {
     private DatabaseService dbService;
     private ForecastService forecastService;
     private ReportService reportService;
+    private SalesIngestionService ingestionService;
     private ObservableList<InventoryItem> inventoryItems;
     private ObservableList<InventoryItem> alertItems;
     private XYChart.Series<Number, Number> forecastSeries;
@@ -61,11 +77,26 @@ public class DashboardController {
     private XYChart.Series<Number, Number> historicalSeries;
     private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd");
 
+    // Latest background fetches; starting a new one cancels the one it replaces
+    private Task<List<InventoryItem>> inventoryTask;
+    private Task<ForecastView> forecastTask;
+    private ForecastView currentView;
+    private int runningTasks;
+    // Prefetches run one at a time on a daemon thread; a new one cancels the one it replaces
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "forecast-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> prefetch;
+    private Stage metricsStage;
+
     @FXML
     public void initialize() {
         dbService = new DatabaseService();
         forecastService = new ForecastService(dbService);
         reportService = new ReportService(dbService, forecastService);
+        ingestionService = new SalesIngestionService(forecastService);
         
         // Initialize series
         forecastSeries = new XYChart.Series<>();
@@ -107,6 +138,9 @@ public class DashboardController {
         historicalSeries.getNode().setStyle("-fx-stroke: green; -fx-stroke-width: 2px;");
         
         forecastChart.setLegendVisible(true);
+
+        // The timeline redraws from the data already loaded, so switching needs no fetch
+        timelineToggle.setOnAction(event -> applyChart(currentView));
     }
 
     private void setupItemSelector() {
@@ -129,6 +163,7 @@ public class DashboardController {
         modelSelector.setItems(FXCollections.observableArrayList(
             "Linear Regression",
             "Random Forest",
+            "Holt-Winters",
             "Support Vector Machine"
         ));
         modelSelector.setValue("Linear Regression");
@@ -138,6 +173,9 @@ public class DashboardController {
                 case "Random Forest":
                     forecastService.setModel("forest");
                     break;
+                case "Holt-Winters":
+                    forecastService.setModel("holtwinters");
+                    break;
                 case "Support Vector Machine":
                     forecastService.setModel("svm");
                     break;
@@ -145,6 +183,7 @@ public class DashboardController {
                     forecastService.setModel("linear");
             }
             updateForecast();
+            prefetchForecasts(inventoryItems);
         });
     }
 
@@ -153,7 +192,7 @@ public class DashboardController {
             LocalDate date = cellData.getValue().getSaleDate();
             return new SimpleStringProperty(dateFormatter.format(date));
         });
-        currentSalesQuantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        currentSalesQuantityCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getQuantity()).asObject());
         currentSalesRevenueCol.setCellValueFactory(cellData -> {
             double revenue = cellData.getValue().getRevenue();
             return new SimpleDoubleProperty(Math.round(revenue * 100.0) / 100.0).asObject();
@@ -161,35 +200,69 @@ public class DashboardController {
     }
 
     private void loadData() {
+        if (inventoryTask != null) {
+            inventoryTask.cancel(true);
+        }
+        Task<List<InventoryItem>> task = new Task<List<InventoryItem>>() {
+            @Override
+            protected List<InventoryItem> call() {
+                return dbService.getAllInventoryItems();
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != inventoryTask) return;
+            applyInventory(task.getValue());
+        });
+        task.setOnFailed(event -> {
+            if (task != inventoryTask) return;
+            task.getException().printStackTrace();
+            accuracyLabel.setText("Failed to load inventory");
+        });
+        inventoryTask = task;
+        startTask(task, "dashboard-inventory");
+    }
+
+    private void applyInventory(List<InventoryItem> allItems) {
         // Get all inventory items for the item selector
-        List<InventoryItem> allItems = dbService.getAllInventoryItems();
         inventoryItems = FXCollections.observableArrayList(allItems);
         itemSelector.setItems(inventoryItems);
+        prefetchForecasts(allItems);
 
-        // Update forecast results
-        InventoryItem selectedItem = itemSelector.getValue();
-        if (selectedItem != null) {
-            List<ForecastResult> forecastResults = forecastService.getForecastResults(selectedItem.getId());
-            forecastResultsTable.setItems(FXCollections.observableArrayList(forecastResults));
-        } else {
-            forecastResultsTable.getItems().clear();
-        }
-
-        // Update current sales data if an item is selected
         if (!inventoryItems.isEmpty()) {
-            itemSelector.setValue(inventoryItems.get(0));
-            updateForecast();
+            InventoryItem first = inventoryItems.get(0);
+            if (itemSelector.getValue() == first) {
+                updateForecast();
+            } else {
+                // The selector's action handler starts the forecast fetch
+                itemSelector.setValue(first);
+            }
         } else {
             // Clear the current sales table if no items are available
             currentSalesTable.getItems().clear();
+            forecastResultsTable.getItems().clear();
+        }
+    }
+
+    // Warms the forecast cache for every item, so switching items is served from cache
+    private void prefetchForecasts(List<InventoryItem> items) {
+        List<Integer> itemIds = items.stream().map(InventoryItem::getId).collect(Collectors.toList());
+
+        if (prefetch != null) {
+            prefetch.cancel(true);
         }
+        prefetch = prefetchExecutor.submit(() -> forecastService.forecastAll(itemIds));
     }
 
     private void updateForecast() {
+        if (forecastTask != null) {
+            forecastTask.cancel(true);
+            forecastTask = null;
+        }
+
         InventoryItem selectedItem = itemSelector.getValue();
         if (selectedItem == null) {
-            forecastSeries.getData().clear();
-            historicalSeries.getData().clear();
+            currentView = null;
+            applyChart(null);
             currentSalesTable.getItems().clear();
             accuracyLabel.setText("No item selected");
             productTitleLabel.setText("No product selected");
@@ -200,62 +273,137 @@ public class DashboardController {
         // Update the product title
         productTitleLabel.setText("Product: " + selectedItem.getName());
 
-        // Clear existing data
-        forecastSeries.getData().clear();
-        historicalSeries.getData().clear();
+        int itemId = selectedItem.getId();
+        Task<ForecastView> task = new Task<ForecastView>() {
+            @Override
+            protected ForecastView call() {
+                long start = System.nanoTime();
+                dbService.resetQueryCount();
+                // Load the history once and hand the same snapshot to every forecast call,
+                // the chart and the sales table
+                List<SalesData> historicalData = dbService.getSalesHistory(itemId);
+                if (isCancelled()) return null;
+                Map<String, Object> forecastData = forecastService.forecastNextMonth(itemId, historicalData);
+                List<ForecastResult> forecastResults = null;
+                if (!isCancelled() && !forecastData.isEmpty()) {
+                    forecastResults = forecastService.getForecastResults(itemId, historicalData);
+                }
+                recordRefresh(start, dbService.getQueryCount());
+                return new ForecastView(historicalData, forecastData, forecastResults);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            // A result that arrives after the selection moved on is dropped
+            if (task != forecastTask) return;
+            applyForecast(task.getValue());
+        });
+        task.setOnFailed(event -> {
+            if (task != forecastTask) return;
+            task.getException().printStackTrace();
+            accuracyLabel.setText("Failed to load forecast");
+        });
+        forecastTask = task;
+        startTask(task, "dashboard-forecast");
+    }
+
+    // Latency and database queries of one selection's refresh, shown in the metrics window
+    private static void recordRefresh(long startNanos, long queries) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.histogram("inventory_dashboard_refresh_seconds", "Time to load an item's history and forecasts")
+                .observeNanos(System.nanoTime() - startNanos);
+        metrics.counter("inventory_dashboard_refresh_queries_total", "Database queries run by dashboard refreshes")
+                .add(queries);
+        metrics.gauge("inventory_dashboard_refresh_queries", "Database queries run by the last dashboard refresh")
+                .set(queries);
+    }
 
-        // Get forecast data
-        Map<String, Object> forecastData = forecastService.forecastNextMonth(selectedItem.getId());
-        if (forecastData.isEmpty()) {
+    // Applies a finished fetch in one pass, so each control is updated once per selection
+    private void applyForecast(ForecastView view) {
+        currentView = view;
+        applyChart(view);
+        if (view.forecastData.isEmpty()) {
+            currentSalesTable.setItems(FXCollections.observableArrayList(view.historicalData));
             accuracyLabel.setText("No data available for forecasting");
             forecastResultsTable.getItems().clear();
             return;
         }
 
-        double accuracy = (double) forecastData.get("accuracy");
+        double accuracy = (double) view.forecastData.get("accuracy");
         accuracyLabel.setText(String.format("Model Accuracy: %.1f%%", accuracy * 100));
 
-        List<Double> forecast = (List<Double>) forecastData.get("forecast");
-        LocalDate nextMonth = LocalDate.now().plusMonths(1);
-        for (int i = 0; i < forecast.size(); i++) {
-            forecastSeries.getData().add(new XYChart.Data<>(i + 1, forecast.get(i)));
-        }
-
-        // Add historical data
-        List<SalesData> historicalData = dbService.getSalesHistory(selectedItem.getId());
-        for (SalesData sale : historicalData) {
-            historicalSeries.getData().add(new XYChart.Data<>(sale.getSaleDate().getDayOfMonth(), sale.getQuantity()));
-        }
-
         // Update the current sales table with the latest sales data
-        currentSalesTable.setItems(FXCollections.observableArrayList(historicalData));
+        currentSalesTable.setItems(FXCollections.observableArrayList(view.historicalData));
 
         // Update the forecasted results table
-        List<ForecastResult> forecastResults = forecastService.getForecastResults(selectedItem.getId());
-        forecastResultsTable.setItems(FXCollections.observableArrayList(forecastResults));
+        forecastResultsTable.setItems(FXCollections.observableArrayList(view.forecastResults));
+    }
 
-        // Set chart legend and axis labels
-        forecastSeries.setName("Forecast");
-        historicalSeries.setName("Actual Sales");
-        forecastChart.getXAxis().setLabel("Day of Month");
-        forecastChart.getYAxis().setLabel("Quantity");
-        forecastChart.setLegendVisible(true);
+    // Only the chart on screen is filled. The timeline draws any history length at about one point per
+    // pixel, while the line chart creates a node per point.
+    private void applyChart(ForecastView view) {
+        boolean timeline = timelineToggle.isSelected();
+        forecastChart.setVisible(!timeline);
+        forecastChart.setManaged(!timeline);
+        timelineChart.setVisible(timeline);
+        timelineChart.setManaged(timeline);
+
+        if (view == null || view.forecastResults == null) {
+            forecastSeries.getData().clear();
+            historicalSeries.getData().clear();
+            timelineChart.clear();
+        } else if (timeline) {
+            forecastSeries.getData().clear();
+            historicalSeries.getData().clear();
+            timelineChart.setSeries(view.historyDays, view.historyQuantities, view.forecastDays, view.forecastValues);
+        } else {
+            timelineChart.clear();
+            forecastSeries.getData().setAll(view.forecastPoints);
+            historicalSeries.getData().setAll(view.historicalPoints);
+        }
+    }
+
+    private void startTask(Task<?> task, String name) {
+        runningTasks++;
+        loadingIndicator.setVisible(true);
+        task.stateProperty().addListener((obs, oldState, state) -> {
+            if (state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                runningTasks--;
+                loadingIndicator.setVisible(runningTasks > 0);
+            }
+        });
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
     }
 
     @FXML
     private void handleExportReport() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Report");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("Excel Files", "*.xlsx")
-        );
+        // One filter per format; the chosen filter decides the format
+        for (ReportFormat format : ReportFormat.values()) {
+            fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter(format.getDescription(), "*." + format.getExtension())
+            );
+        }
         fileChooser.setInitialFileName("inventory_report_" + LocalDate.now().toString() + ".xlsx");
 
         File file = fileChooser.showSaveDialog(chartContainer.getScene().getWindow());
         if (file != null) {
             try {
-                reportService.generateReport(file.getAbsolutePath());
-                showAlert("Success", "Report generated successfully!", Alert.AlertType.INFORMATION);
+                ReportFormat format = ReportFormat.forFileName(file.getName());
+                FileChooser.ExtensionFilter selected = fileChooser.getSelectedExtensionFilter();
+                if (selected != null && !file.getName().contains(".")) {
+                    format = ReportFormat.values()[fileChooser.getExtensionFilters().indexOf(selected)];
+                    file = new File(file.getPath() + "." + format.getExtension());
+                }
+                ReportService.Timings timings = reportService.generateReport(file.getAbsolutePath(), format);
+                if (timings == null) {
+                    showAlert("Error", "Failed to generate report, see the log for details", Alert.AlertType.ERROR);
+                } else {
+                    showAlert("Success", String.format("Report generated successfully in %.1f s!",
+                            timings.getTotalMillis() / 1000.0), Alert.AlertType.INFORMATION);
+                }
             } catch (Exception e) {
                 e.printStackTrace();
                 showAlert("Error", "Failed to generate report: " + e.getMessage(), Alert.AlertType.ERROR);
@@ -269,54 +417,42 @@ public class DashboardController {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/upload_dialog.fxml"));
             DialogPane dialogPane = loader.load();
             UploadDialogController controller = loader.getController();
+            controller.setIngestionService(ingestionService);
             
             Dialog<ButtonType> dialog = new Dialog<>();
             dialog.setDialogPane(dialogPane);
             dialog.setTitle("Upload Sales Data");
+            controller.bindDialog(dialog);
             
             Optional<ButtonType> result = dialog.showAndWait();
-            if (result.isPresent() && result.get() == ButtonType.OK) {
-                List<SalesData> uploadedData = controller.getParsedData();
-                Map<String, Integer> productIdMap = controller.getProductIdMap();
-                
-                if (!uploadedData.isEmpty()) {
-                    // Clear existing data
-                    currentSalesTable.getItems().clear();
-                    
-                    // Update inventory and sales data for each product
-                    for (Map.Entry<String, Integer> entry : productIdMap.entrySet()) {
-                        String productName = entry.getKey();
-                        int productId = entry.getValue();
-                        
-                        // Filter data for this product
-                        List<SalesData> productData = uploadedData.stream()
-                            .filter(data -> data.getItemId() == productId)
-                            .collect(Collectors.toList());
-                        
-                        if (!productData.isEmpty()) {
-                            // Get the latest data point for inventory update
-                            SalesData latestData = productData.get(productData.size() - 1);
-                            
-                            // Update inventory quantity
-                            dbService.updateInventoryQuantity(productId, latestData.getRemaining());
-                            
-                            // Update sales history
-                            forecastService.updateSalesData(productId, productData);
-                        }
-                    }
-                    
-                    // Train the model with the uploaded data
-                    forecastService.trainModel(uploadedData);
-                    
-                    // Refresh the dashboard
+            SalesIngestionService.Summary summary = controller.getSummary();
+            if (summary != null && summary.isCancelled()) {
+                // The rows merged before the cancel are stored, so show them; the file's stock levels were
+                // not read to the end and are left alone
+                if (summary.getRowsWritten() > 0) {
                     loadData();
-                    // Update the product title based on the selected item
-                    InventoryItem selectedItem = itemSelector.getValue();
-                    if (selectedItem != null) {
-                        productTitleLabel.setText("Product: " + selectedItem.getName());
-                    }
-                    showAlert("Success", "Data uploaded and model trained successfully!", Alert.AlertType.INFORMATION);
+                    showAlert("Import Cancelled", String.format("%,d records written before the cancel were kept.%n"
+                            + "Sales records: %s%nInventory levels were not updated.",
+                            summary.getRowsWritten(), summary.getMergeResult()), Alert.AlertType.INFORMATION);
+                }
+            } else if (result.isPresent() && result.get() == ButtonType.OK && summary != null && summary.getRows() > 0) {
+                // Clear existing data
+                currentSalesTable.getItems().clear();
+                
+                // Sales were merged while importing; only inventory levels are left to update
+                for (Map.Entry<Integer, Integer> entry : summary.getLatestRemaining().entrySet()) {
+                    dbService.updateInventoryQuantity(entry.getKey(), entry.getValue());
                 }
+                
+                // Refresh the dashboard
+                loadData();
+                // Update the product title based on the selected item
+                InventoryItem selectedItem = itemSelector.getValue();
+                if (selectedItem != null) {
+                    productTitleLabel.setText("Product: " + selectedItem.getName());
+                }
+                showAlert("Success", "Data uploaded and model trained successfully!\n"
+                        + "Sales records: " + summary.getMergeResult(), Alert.AlertType.INFORMATION);
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -324,6 +460,31 @@ public class DashboardController {
         }
     }
 
+    @FXML
+    private void handleShowMetrics() {
+        // One window, brought to the front when opened again
+        if (metricsStage != null) {
+            metricsStage.show();
+            metricsStage.toFront();
+            return;
+        }
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/metrics_panel.fxml"));
+            Parent root = loader.load();
+            MetricsPanelController controller = loader.getController();
+
+            metricsStage = new Stage();
+            metricsStage.setTitle("Metrics");
+            metricsStage.initOwner(chartContainer.getScene().getWindow());
+            metricsStage.setScene(new Scene(root));
+            controller.bindWindow(metricsStage);
+            metricsStage.show();
+        } catch (IOException e) {
+            e.printStackTrace();
+            showError("Error", "Failed to load metrics panel: " + e.getMessage());
+        }
+    }
+
     private void showError(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -349,4 +510,45 @@ public class DashboardController {
         });
         forecastMonthCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDate().getMonth().toString() + " " + cellData.getValue().getDate().getYear()));
     }
+
+    // Everything the dashboard shows for one item, fetched and shaped off the FX thread
+    private static final class ForecastView {
+        final List<SalesData> historicalData;
+        final Map<String, Object> forecastData;
+        final List<ForecastResult> forecastResults;
+        final List<XYChart.Data<Number, Number>> forecastPoints = new ArrayList<>();
+        final List<XYChart.Data<Number, Number>> historicalPoints = new ArrayList<>();
+        // Epoch days against quantities for the timeline chart
+        double[] historyDays = new double[0];
+        double[] historyQuantities = new double[0];
+        double[] forecastDays = new double[0];
+        double[] forecastValues = new double[0];
+
+        @SuppressWarnings("unchecked")
+        ForecastView(List<SalesData> historicalData, Map<String, Object> forecastData,
+                     List<ForecastResult> forecastResults) {
+            this.historicalData = historicalData;
+            this.forecastData = forecastData;
+            this.forecastResults = forecastResults;
+            if (forecastResults == null) return;
+
+            List<Double> forecast = (List<Double>) forecastData.get("forecast");
+            long firstForecastDay = LocalDate.now().plusMonths(1).withDayOfMonth(1).toEpochDay();
+            forecastDays = new double[forecast.size()];
+            forecastValues = new double[forecast.size()];
+            for (int i = 0; i < forecast.size(); i++) {
+                forecastPoints.add(new XYChart.Data<>(i + 1, forecast.get(i)));
+                forecastDays[i] = firstForecastDay + i;
+                forecastValues[i] = forecast.get(i);
+            }
+            historyDays = new double[historicalData.size()];
+            historyQuantities = new double[historicalData.size()];
+            for (int i = 0; i < historicalData.size(); i++) {
+                SalesData sale = historicalData.get(i);
+                historicalPoints.add(new XYChart.Data<>(sale.getSaleDate().getDayOfMonth(), sale.getQuantity()));
+                historyDays[i] = sale.getSaleDate().toEpochDay();
+                historyQuantities[i] = sale.getQuantity();
+            }
+        }
+    }
 } 
\ No newline at end of file
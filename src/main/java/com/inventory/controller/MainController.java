@@ -1,10 +1,17 @@
 package com.inventory.controller;
 
+import com.inventory.cli.BulkImportCommand;
+import com.inventory.service.DatabaseService;
+import com.inventory.service.ForecastService;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
 import javafx.scene.control.TableView;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import java.io.File;
+import java.util.List;
 
 public class MainController {
     @FXML
@@ -13,17 +20,41 @@ public class MainController {
     @FXML
     private TableView<?> forecastTable;
 
+    private final DatabaseService dbService = new DatabaseService();
+    private final ForecastService forecastService = new ForecastService(dbService);
+
     @FXML
     private void handleImportData() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Import Data");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("Excel Files", "*.xlsx", "*.xls")
-        );
-        File file = fileChooser.showOpenDialog(inventoryTable.getScene().getWindow());
-        if (file != null) {
-            // TODO: Implement data import logic
+        // Imports every sales CSV in the chosen folder, the same way as BulkImportCommand on the command line
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Import Sales History Folder");
+        File directory = directoryChooser.showDialog(inventoryTable.getScene().getWindow());
+        if (directory == null) {
+            return;
         }
+
+        Task<BulkImportCommand.Stats> task = new Task<BulkImportCommand.Stats>() {
+            @Override
+            protected BulkImportCommand.Stats call() throws Exception {
+                return new BulkImportCommand(dbService, forecastService).run(List.of(directory.getAbsolutePath()));
+            }
+        };
+        task.setOnSucceeded(event -> showAlert(Alert.AlertType.INFORMATION, "Import Complete",
+                task.getValue().toString()));
+        task.setOnFailed(event -> showAlert(Alert.AlertType.ERROR, "Import Failed",
+                task.getException().getMessage()));
+
+        Thread thread = new Thread(task, "bulk-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showAlert(Alert.AlertType type, String title, String content) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(content);
+        alert.showAndWait();
     }
 
     @FXML
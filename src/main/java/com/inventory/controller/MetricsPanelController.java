@@ -0,0 +1,93 @@
+package com.inventory.controller;
+
+import com.inventory.service.MetricsExporter;
+import com.inventory.service.MetricsRegistry;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public class MetricsPanelController {
+    @FXML private TableView<MetricsRegistry.Row> metricsTable;
+    @FXML private TableColumn<MetricsRegistry.Row, String> nameCol;
+    @FXML private TableColumn<MetricsRegistry.Row, String> labelsCol;
+    @FXML private TableColumn<MetricsRegistry.Row, String> valueCol;
+    @FXML private TextField filterField;
+    @FXML private Label statusLabel;
+
+    private final MetricsRegistry registry = MetricsRegistry.getDefault();
+    // Re-reads the registry once a second while the window is open
+    private final Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), event -> refresh()));
+
+    @FXML
+    public void initialize() {
+        nameCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getName()));
+        labelsCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getLabels()));
+        valueCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getValue()));
+        metricsTable.setRowFactory(table -> new TableRow<MetricsRegistry.Row>() {
+            @Override
+            protected void updateItem(MetricsRegistry.Row row, boolean empty) {
+                super.updateItem(row, empty);
+                setTooltip(empty || row == null ? null : new Tooltip(row.getHelp()));
+            }
+        });
+        filterField.textProperty().addListener((obs, oldText, text) -> refresh());
+
+        refresher.setCycleCount(Timeline.INDEFINITE);
+        refresh();
+    }
+
+    // Starts refreshing when the window opens and stops when it closes
+    public void bindWindow(Window window) {
+        window.setOnShown(event -> refresher.play());
+        window.setOnHidden(event -> refresher.stop());
+    }
+
+    private void refresh() {
+        String filter = filterField.getText() == null ? "" : filterField.getText().trim().toLowerCase(Locale.ROOT);
+        List<MetricsRegistry.Row> rows = registry.rows().stream()
+                .filter(row -> filter.isEmpty()
+                        || row.getName().toLowerCase(Locale.ROOT).contains(filter)
+                        || row.getLabels().toLowerCase(Locale.ROOT).contains(filter))
+                .collect(Collectors.toList());
+        // Keep the selection on the same series across refreshes
+        int selected = metricsTable.getSelectionModel().getSelectedIndex();
+        metricsTable.setItems(FXCollections.observableArrayList(rows));
+        if (selected >= 0 && selected < rows.size()) {
+            metricsTable.getSelectionModel().select(selected);
+        }
+
+        String port = System.getProperty(MetricsExporter.PORT_PROPERTY);
+        statusLabel.setText(rows.size() + " series"
+                + (port == null ? "" : ", also served at http://127.0.0.1:" + port + "/metrics"));
+    }
+
+    @FXML
+    private void handleSaveDump() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Metrics");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Prometheus Text", "*.prom", "*.txt"));
+        fileChooser.setInitialFileName("metrics.prom");
+        File file = fileChooser.showSaveDialog(metricsTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            registry.dump(file.toPath());
+            statusLabel.setText("Saved " + file.getAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            statusLabel.setText("Failed to save metrics: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
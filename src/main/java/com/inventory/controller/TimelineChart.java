@@ -0,0 +1,311 @@
+package com.inventory.controller;
+
+import com.inventory.service.SeriesDownsampler;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+// Sales history and forecast drawn on a single Canvas against real dates. Each redraw downsamples the
+// visible range to the plot width, so long histories cost a few thousand line segments instead of one
+// scene-graph node per sale. Scroll zooms around the pointer, dragging pans, a double click resets.
+public class TimelineChart extends Region {
+    private static final double LEFT = 56;
+    private static final double RIGHT = 12;
+    private static final double TOP = 22;
+    private static final double BOTTOM = 24;
+    private static final double MIN_SPAN_DAYS = 7;
+    private static final Color HISTORY_COLOR = Color.GREEN;
+    private static final Color FORECAST_COLOR = Color.BLUE;
+    private static final Color GRID_COLOR = Color.gray(0.88);
+    private static final Color TEXT_COLOR = Color.gray(0.35);
+
+    private final Canvas canvas = new Canvas();
+    private double[] historyX = new double[0];
+    private double[] historyY = new double[0];
+    private double[] forecastX = new double[0];
+    private double[] forecastY = new double[0];
+    private double dataMin;
+    private double dataMax;
+    private double viewMin;
+    private double viewMax;
+
+    private double dragStartX;
+    private double dragViewMin;
+    private double dragViewMax;
+
+    private int drawnPoints;
+    private double lastRenderMillis;
+
+    public TimelineChart() {
+        getChildren().add(canvas);
+        setMinSize(0, 0);
+
+        setOnScroll(event -> {
+            if (event.getDeltaY() != 0) {
+                zoom(event.getX(), event.getDeltaY() > 0 ? 0.8 : 1.25);
+            }
+        });
+        setOnMousePressed(event -> {
+            dragStartX = event.getX();
+            dragViewMin = viewMin;
+            dragViewMax = viewMax;
+        });
+        setOnMouseDragged(event -> {
+            double span = dragViewMax - dragViewMin;
+            double shift = -(event.getX() - dragStartX) / plotWidth() * span;
+            setView(dragViewMin + shift, dragViewMax + shift);
+        });
+        setOnMouseClicked(event -> {
+            if (event.getClickCount() == 2) {
+                resetView();
+            }
+        });
+    }
+
+    // x values are epoch days; points are sorted by x here if the caller's are not
+    public void setSeries(double[] historyX, double[] historyY, double[] forecastX, double[] forecastY) {
+        double[][] history = sorted(historyX, historyY);
+        double[][] forecast = sorted(forecastX, forecastY);
+        this.historyX = history[0];
+        this.historyY = history[1];
+        this.forecastX = forecast[0];
+        this.forecastY = forecast[1];
+
+        dataMin = Double.POSITIVE_INFINITY;
+        dataMax = Double.NEGATIVE_INFINITY;
+        for (double[] x : new double[][]{this.historyX, this.forecastX}) {
+            if (x.length > 0) {
+                dataMin = Math.min(dataMin, x[0]);
+                dataMax = Math.max(dataMax, x[x.length - 1]);
+            }
+        }
+        resetView();
+    }
+
+    public void clear() {
+        setSeries(new double[0], new double[0], new double[0], new double[0]);
+    }
+
+    public void resetView() {
+        if (dataMin > dataMax) {
+            viewMin = 0;
+            viewMax = 0;
+        } else {
+            // A single day still gets a visible span
+            double pad = Math.max(0, (MIN_SPAN_DAYS - (dataMax - dataMin)) / 2);
+            viewMin = dataMin - pad;
+            viewMax = dataMax + pad;
+        }
+        redraw();
+    }
+
+    public int getDrawnPoints() {
+        return drawnPoints;
+    }
+
+    public double getLastRenderMillis() {
+        return lastRenderMillis;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        redraw();
+    }
+
+    private void zoom(double pointerX, double factor) {
+        double span = viewMax - viewMin;
+        if (span <= 0) return;
+        double anchor = viewMin + (pointerX - LEFT) / plotWidth() * span;
+        double fullSpan = Math.max(MIN_SPAN_DAYS, dataMax - dataMin);
+        double newSpan = Math.max(MIN_SPAN_DAYS, Math.min(fullSpan, span * factor));
+        double scale = newSpan / span;
+        setView(anchor - (anchor - viewMin) * scale, anchor + (viewMax - anchor) * scale);
+    }
+
+    // Keeps the window inside the data, shifting it rather than shrinking it
+    private void setView(double min, double max) {
+        double span = max - min;
+        double lower = Math.min(dataMin, dataMax - span);
+        double upper = Math.max(dataMax, dataMin + span);
+        if (min < lower) {
+            min = lower;
+            max = min + span;
+        }
+        if (max > upper) {
+            max = upper;
+            min = max - span;
+        }
+        viewMin = min;
+        viewMax = max;
+        redraw();
+    }
+
+    private double plotWidth() {
+        return Math.max(1, canvas.getWidth() - LEFT - RIGHT);
+    }
+
+    private void redraw() {
+        long start = System.nanoTime();
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.clearRect(0, 0, width, height);
+        drawnPoints = 0;
+
+        double plotW = width - LEFT - RIGHT;
+        double plotH = height - TOP - BOTTOM;
+        if (plotW < 10 || plotH < 10) return;
+        if (viewMax <= viewMin) {
+            g.setFill(TEXT_COLOR);
+            g.setTextAlign(TextAlignment.CENTER);
+            g.setTextBaseline(VPos.CENTER);
+            g.fillText("No data", width / 2, height / 2);
+            return;
+        }
+
+        // About one point per pixel column, re-sampled from the raw data on every zoom or pan
+        int threshold = Math.max(3, (int) plotW);
+        int[] history = visible(historyX, historyY, threshold);
+        int[] forecast = visible(forecastX, forecastY, threshold);
+
+        double yMin = 0;
+        double yMax = 0;
+        for (int i : history) {
+            yMin = Math.min(yMin, historyY[i]);
+            yMax = Math.max(yMax, historyY[i]);
+        }
+        for (int i : forecast) {
+            yMin = Math.min(yMin, forecastY[i]);
+            yMax = Math.max(yMax, forecastY[i]);
+        }
+        yMax = yMax <= yMin ? yMin + 1 : yMax + (yMax - yMin) * 0.05;
+
+        drawAxes(g, plotW, plotH, yMin, yMax);
+
+        g.save();
+        g.beginPath();
+        g.rect(LEFT, TOP, plotW, plotH);
+        g.clip();
+        drawLine(g, historyX, historyY, history, HISTORY_COLOR, plotW, plotH, yMin, yMax);
+        drawLine(g, forecastX, forecastY, forecast, FORECAST_COLOR, plotW, plotH, yMin, yMax);
+        g.restore();
+
+        drawnPoints = history.length + forecast.length;
+        lastRenderMillis = (System.nanoTime() - start) / 1e6;
+        drawLegend(g, width);
+    }
+
+    // Downsampled indices of the points in view, plus one on either side so lines reach the edges
+    private int[] visible(double[] x, double[] y, int threshold) {
+        int from = Math.max(0, SeriesDownsampler.lowerBound(x, viewMin) - 1);
+        int to = Math.min(x.length, SeriesDownsampler.upperBound(x, viewMax) + 1);
+        return SeriesDownsampler.lttb(x, y, from, to, threshold);
+    }
+
+    private void drawLine(GraphicsContext g, double[] x, double[] y, int[] indices, Color color,
+                          double plotW, double plotH, double yMin, double yMax) {
+        if (indices.length == 0) return;
+        double xScale = plotW / (viewMax - viewMin);
+        double yScale = plotH / (yMax - yMin);
+        g.setStroke(color);
+        g.setLineWidth(1.5);
+        g.beginPath();
+        for (int k = 0; k < indices.length; k++) {
+            int i = indices[k];
+            double px = LEFT + (x[i] - viewMin) * xScale;
+            double py = TOP + plotH - (y[i] - yMin) * yScale;
+            if (k == 0) {
+                g.moveTo(px, py);
+            } else {
+                g.lineTo(px, py);
+            }
+        }
+        g.stroke();
+        if (indices.length == 1) {
+            // A lone point has no segment to stroke
+            int i = indices[0];
+            g.setFill(color);
+            g.fillOval(LEFT + (x[i] - viewMin) * xScale - 2, TOP + plotH - (y[i] - yMin) * yScale - 2, 4, 4);
+        }
+    }
+
+    private void drawAxes(GraphicsContext g, double plotW, double plotH, double yMin, double yMax) {
+        g.setLineWidth(1);
+        g.setFill(TEXT_COLOR);
+
+        int yTicks = 5;
+        boolean fractional = yMax - yMin < 10;
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.setTextBaseline(VPos.CENTER);
+        for (int t = 0; t <= yTicks; t++) {
+            double value = yMin + (yMax - yMin) * t / yTicks;
+            double py = TOP + plotH - plotH * t / yTicks;
+            g.setStroke(GRID_COLOR);
+            g.strokeLine(LEFT, py, LEFT + plotW, py);
+            g.fillText(String.format(fractional ? "%.1f" : "%.0f", value), LEFT - 6, py);
+        }
+
+        double span = viewMax - viewMin;
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(span > 365 ? "MMM yyyy" : "MMM dd");
+        int xTicks = Math.max(2, Math.min(8, (int) (plotW / 110)));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.TOP);
+        for (int t = 0; t <= xTicks; t++) {
+            double day = viewMin + span * t / xTicks;
+            double px = LEFT + plotW * t / xTicks;
+            g.setStroke(GRID_COLOR);
+            g.strokeLine(px, TOP, px, TOP + plotH);
+            g.fillText(format.format(LocalDate.ofEpochDay(Math.round(day))), px, TOP + plotH + 6);
+        }
+
+        g.setStroke(TEXT_COLOR);
+        g.strokeRect(LEFT, TOP, plotW, plotH);
+    }
+
+    private void drawLegend(GraphicsContext g, double width) {
+        g.setTextBaseline(VPos.CENTER);
+        g.setTextAlign(TextAlignment.LEFT);
+        double y = TOP / 2;
+        g.setFill(HISTORY_COLOR);
+        g.fillRect(LEFT, y - 4, 12, 8);
+        g.setFill(TEXT_COLOR);
+        g.fillText("Actual Sales", LEFT + 16, y);
+        g.setFill(FORECAST_COLOR);
+        g.fillRect(LEFT + 100, y - 4, 12, 8);
+        g.setFill(TEXT_COLOR);
+        g.fillText("Forecast", LEFT + 116, y);
+
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.fillText(String.format("%,d of %,d points, %.1f ms", drawnPoints, historyX.length + forecastX.length,
+                lastRenderMillis), width - RIGHT, y);
+    }
+
+    private static double[][] sorted(double[] x, double[] y) {
+        boolean ascending = true;
+        for (int i = 1; i < x.length && ascending; i++) {
+            ascending = x[i - 1] <= x[i];
+        }
+        if (ascending) {
+            return new double[][]{x, y};
+        }
+        Integer[] order = IntStream.range(0, x.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> x[i]));
+        double[] sx = new double[x.length];
+        double[] sy = new double[y.length];
+        for (int i = 0; i < order.length; i++) {
+            sx[i] = x[order[i]];
+            sy[i] = y[order[i]];
+        }
+        return new double[][]{sx, sy};
+    }
+}
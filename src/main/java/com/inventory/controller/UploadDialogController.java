@@ -1,29 +1,41 @@
 package com.inventory.controller;
 
 import com.inventory.model.SalesData;
+import com.inventory.service.SalesCsvParser;
+import com.inventory.service.SalesIngestionService;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.stage.FileChooser;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.io.*;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
 
 public class UploadDialogController {
     @FXML private TextField filePathField;
     @FXML private TableView<SalesData> previewTable;
     @FXML private Label statusLabel;
+    @FXML private Button importButton;
+    @FXML private ProgressBar progressBar;
+    
+    private static final int PREVIEW_ROWS = 10;
+    private static final int PREVIEW_BYTES = 64 * 1024;
     
     private ObservableList<SalesData> previewData = FXCollections.observableArrayList();
-    private List<SalesData> parsedData = new ArrayList<>();
-    private Map<String, Integer> productIdMap = new HashMap<>();
+    private SalesIngestionService ingestionService;
+    private File selectedFile;
+    private Task<SalesIngestionService.Summary> importTask;
+    // Set by Cancel while an import runs; the import stops at the next chunk and still returns its summary
+    private volatile boolean cancelRequested;
+    private SalesIngestionService.Summary summary;
+    private Button okButton;
     
     @FXML
     public void initialize() {
@@ -32,16 +44,16 @@ public class UploadDialogController {
     
     private void setupPreviewTable() {
         TableColumn<SalesData, String> productCol = new TableColumn<>("Product");
-        productCol.setCellValueFactory(new PropertyValueFactory<>("itemName"));
+        productCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getItemName()));
         
-        TableColumn<SalesData, String> dateCol = new TableColumn<>("Date");
-        dateCol.setCellValueFactory(new PropertyValueFactory<>("saleDate"));
+        TableColumn<SalesData, LocalDate> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getSaleDate()));
         
         TableColumn<SalesData, Integer> quantityCol = new TableColumn<>("Quantity");
-        quantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        quantityCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getQuantity()).asObject());
         
         TableColumn<SalesData, Double> revenueCol = new TableColumn<>("Revenue");
-        revenueCol.setCellValueFactory(new PropertyValueFactory<>("revenue"));
+        revenueCol.setCellValueFactory(cellData -> new SimpleDoubleProperty(cellData.getValue().getRevenue()).asObject());
         revenueCol.setCellFactory(column -> new TableCell<SalesData, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
@@ -55,15 +67,45 @@ public class UploadDialogController {
         });
         
         TableColumn<SalesData, Integer> soldCol = new TableColumn<>("Sold");
-        soldCol.setCellValueFactory(new PropertyValueFactory<>("sold"));
+        soldCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getSold()).asObject());
         
         TableColumn<SalesData, Integer> remainingCol = new TableColumn<>("Remaining");
-        remainingCol.setCellValueFactory(new PropertyValueFactory<>("remaining"));
+        remainingCol.setCellValueFactory(cellData -> new SimpleIntegerProperty(cellData.getValue().getRemaining()).asObject());
         
         previewTable.getColumns().addAll(productCol, dateCol, quantityCol, revenueCol, soldCol, remainingCol);
         previewTable.setItems(previewData);
     }
     
+    public void setIngestionService(SalesIngestionService ingestionService) {
+        this.ingestionService = ingestionService;
+    }
+    
+    // OK stays disabled until an import finishes. Cancel stops one that is still running but keeps the
+    // dialog open, because batches already merged stay in the database and the user is told how many.
+    public void bindDialog(Dialog<ButtonType> dialog) {
+        okButton = (Button) dialog.getDialogPane().lookupButton(ButtonType.OK);
+        okButton.setDisable(true);
+        Button cancelButton = (Button) dialog.getDialogPane().lookupButton(ButtonType.CANCEL);
+        cancelButton.addEventFilter(javafx.event.ActionEvent.ACTION, event -> {
+            if (importTask != null && importTask.isRunning()) {
+                event.consume();
+                requestCancel();
+            }
+        });
+        dialog.setOnCloseRequest(event -> {
+            if (importTask != null && importTask.isRunning()) {
+                event.consume();
+                requestCancel();
+            }
+        });
+    }
+
+    private void requestCancel() {
+        cancelRequested = true;
+        statusLabel.textProperty().unbind();
+        statusLabel.setText("Cancelling; finishing the batches already sent to the database...");
+    }
+    
     @FXML
     private void handleBrowse() {
         FileChooser fileChooser = new FileChooser();
@@ -75,67 +117,101 @@ public class UploadDialogController {
         File file = fileChooser.showOpenDialog(filePathField.getScene().getWindow());
         if (file != null) {
             filePathField.setText(file.getAbsolutePath());
-            parseCSV(file);
+            selectedFile = file;
+            summary = null;
+            if (okButton != null) {
+                okButton.setDisable(true);
+            }
+            loadPreview(file);
         }
     }
     
-    private void parseCSV(File file) {
+    // Reads only the first rows; the full file is streamed by the import
+    private void loadPreview(File file) {
         previewData.clear();
-        parsedData.clear();
-        productIdMap.clear();
+        Map<String, Integer> productIdMap = new HashMap<>();
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isFirstLine = true;
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            AtomicInteger currentProductId = new AtomicInteger(1);
-            
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Skip header
-                }
+        try {
+            SalesCsvParser.Chunk head = SalesCsvParser.parseHead(file.toPath(), PREVIEW_BYTES);
+            for (int i = 0; i < head.size() && previewData.size() < PREVIEW_ROWS; i++) {
+                String productName = head.product(i);
+                int productId = productIdMap.computeIfAbsent(productName, k -> productIdMap.size() + 1);
                 
-                String[] values = line.split(",");
-                if (values.length >= 6) {
-                    try {
-                        String productName = values[0].trim();
-                        LocalDate date = LocalDate.parse(values[1].trim(), dateFormatter);
-                        int quantity = Integer.parseInt(values[2].trim());
-                        double revenue = Double.parseDouble(values[3].trim());
-                        int sold = Integer.parseInt(values[4].trim());
-                        int remaining = Integer.parseInt(values[5].trim());
-                        
-                        // Get or create product ID
-                        int productId = productIdMap.computeIfAbsent(productName, k -> currentProductId.getAndIncrement());
-                        
-                        SalesData data = new SalesData(0, productId, productName, quantity, revenue, date);
-                        data.setSold(sold);
-                        data.setRemaining(remaining);
-                        
-                        parsedData.add(data);
-                        
-                        if (previewData.size() < 10) { // Show only first 10 rows in preview
-                            previewData.add(data);
-                        }
-                    } catch (Exception e) {
-                        statusLabel.setText("Error parsing line: " + line);
-                        return;
-                    }
-                }
+                SalesData data = new SalesData(0, productId, productName, head.quantity(i), head.revenue(i),
+                        LocalDate.ofEpochDay(head.epochDay(i)), head.sold(i), head.remaining(i));
+                previewData.add(data);
             }
             
-            statusLabel.setText("Successfully loaded " + parsedData.size() + " records for " + productIdMap.size() + " products");
+            importButton.setDisable(false);
+            String status = String.format("Ready to import %.1f MB", file.length() / (1024.0 * 1024.0));
+            if (!head.getErrors().isEmpty()) {
+                status += " (error at " + head.getErrors().get(0) + ")";
+            }
+            statusLabel.setText(status);
         } catch (IOException e) {
             statusLabel.setText("Error reading file: " + e.getMessage());
         }
     }
     
-    public List<SalesData> getParsedData() {
-        return parsedData;
+    @FXML
+    private void handleImport() {
+        if (selectedFile == null || ingestionService == null) {
+            return;
+        }
+        
+        File file = selectedFile;
+        cancelRequested = false;
+        importTask = new Task<SalesIngestionService.Summary>() {
+            @Override
+            protected SalesIngestionService.Summary call() throws Exception {
+                return ingestionService.ingest(file, (bytesRead, totalBytes, rows, rejected) -> {
+                    updateProgress(bytesRead, totalBytes);
+                    updateMessage(String.format("Imported %,d records (%,d rejected)", rows, rejected));
+                }, () -> cancelRequested);
+            }
+        };
+        
+        importButton.setDisable(true);
+        progressBar.setVisible(true);
+        progressBar.progressProperty().bind(importTask.progressProperty());
+        statusLabel.textProperty().bind(importTask.messageProperty());
+        
+        importTask.setOnSucceeded(event -> {
+            finishImport();
+            summary = importTask.getValue();
+            if (summary.isCancelled()) {
+                importButton.setDisable(false);
+                statusLabel.setText(String.format("Import cancelled. %,d records already written were kept (%s); "
+                        + "the rest of the file was not imported.", summary.getRowsWritten(), summary.getMergeResult()));
+                return;
+            }
+            statusLabel.setText(String.format("Imported %,d records for %d products in %.1f s (%,.0f rows/s)%s",
+                    summary.getRows(), summary.getProductIdMap().size(), summary.getElapsedMillis() / 1000.0,
+                    summary.getRowsPerSecond(),
+                    summary.getRejected() > 0 ? ", " + summary.getRejected() + " rejected" : ""));
+            if (okButton != null) {
+                okButton.setDisable(false);
+            }
+        });
+        importTask.setOnFailed(event -> {
+            finishImport();
+            importButton.setDisable(false);
+            Throwable error = importTask.getException();
+            error.printStackTrace();
+            statusLabel.setText("Import failed: " + error.getMessage());
+        });
+        
+        Thread thread = new Thread(importTask, "sales-ingestion");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void finishImport() {
+        progressBar.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
     }
     
-    public Map<String, Integer> getProductIdMap() {
-        return productIdMap;
+    public SalesIngestionService.Summary getSummary() {
+        return summary;
     }
-} 
\ No newline at end of file
+}
@@ -1,58 +1,51 @@
 package com.inventory.model;
 
-import javafx.beans.property.*;
 import java.time.LocalDate;
 
+// Plain immutable value; table cells wrap fields in properties only for the rows on screen
 public class ForecastResult {
-    private final ObjectProperty<LocalDate> date;
-    private final DoubleProperty forecastValue;
-    private final DoubleProperty lowerBound;
-    private final DoubleProperty upperBound;
-    private final StringProperty modelType;
-    private double forecastedQuantity;
-    private double assumedSalesPrice;
-    private String productName;
+    private final LocalDate date;
+    private final double forecastValue;
+    private final double lowerBound;
+    private final double upperBound;
+    private final String modelType;
+    private final double forecastedQuantity;
+    private final double assumedSalesPrice;
+    private final String productName;
     
     public ForecastResult(LocalDate date, double forecastValue, double lowerBound, double upperBound, String modelType) {
-        this.date = new SimpleObjectProperty<>(date);
-        this.forecastValue = new SimpleDoubleProperty(forecastValue);
-        this.lowerBound = new SimpleDoubleProperty(lowerBound);
-        this.upperBound = new SimpleDoubleProperty(upperBound);
-        this.modelType = new SimpleStringProperty(modelType);
+        this(date, forecastValue, lowerBound, upperBound, modelType, 0.0, 0.0, null);
     }
     
     public ForecastResult(LocalDate date, double forecastedQuantity, double assumedSalesPrice, String productName) {
-        this.date = new SimpleObjectProperty<>(date);
-        this.forecastValue = new SimpleDoubleProperty(0.0);
-        this.lowerBound = new SimpleDoubleProperty(0.0);
-        this.upperBound = new SimpleDoubleProperty(0.0);
-        this.modelType = new SimpleStringProperty("");
+        this(date, 0.0, 0.0, 0.0, "", forecastedQuantity, assumedSalesPrice, productName);
+    }
+
+    // A monthly result with the quantity's 95% band
+    public ForecastResult(LocalDate date, double forecastedQuantity, double lowerBound, double upperBound,
+                          double assumedSalesPrice, String productName) {
+        this(date, 0.0, lowerBound, upperBound, "", forecastedQuantity, assumedSalesPrice, productName);
+    }
+
+    private ForecastResult(LocalDate date, double forecastValue, double lowerBound, double upperBound, String modelType,
+                           double forecastedQuantity, double assumedSalesPrice, String productName) {
+        this.date = date;
+        this.forecastValue = forecastValue;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.modelType = modelType;
         this.forecastedQuantity = forecastedQuantity;
         this.assumedSalesPrice = assumedSalesPrice;
         this.productName = productName;
     }
     
-    // Getters and property accessors
-    public LocalDate getDate() { return date.get(); }
-    public ObjectProperty<LocalDate> dateProperty() { return date; }
-    
-    public double getForecastValue() { return forecastValue.get(); }
-    public DoubleProperty forecastValueProperty() { return forecastValue; }
-    
-    public double getLowerBound() { return lowerBound.get(); }
-    public DoubleProperty lowerBoundProperty() { return lowerBound; }
-    
-    public double getUpperBound() { return upperBound.get(); }
-    public DoubleProperty upperBoundProperty() { return upperBound; }
-    
-    public String getModelType() { return modelType.get(); }
-    public StringProperty modelTypeProperty() { return modelType; }
-
-    // Getters and setters
+    // Getters
+    public LocalDate getDate() { return date; }
+    public double getForecastValue() { return forecastValue; }
+    public double getLowerBound() { return lowerBound; }
+    public double getUpperBound() { return upperBound; }
+    public String getModelType() { return modelType; }
     public double getForecastedQuantity() { return forecastedQuantity; }
-    public void setForecastedQuantity(double forecastedQuantity) { this.forecastedQuantity = forecastedQuantity; }
     public double getAssumedSalesPrice() { return assumedSalesPrice; }
-    public void setAssumedSalesPrice(double assumedSalesPrice) { this.assumedSalesPrice = assumedSalesPrice; }
     public String getProductName() { return productName; }
-    public void setProductName(String productName) { this.productName = productName; }
-} 
\ No newline at end of file
+}
\ No newline at end of file
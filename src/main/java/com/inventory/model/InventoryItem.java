@@ -1,46 +1,33 @@
 package com.inventory.model;
 
-import javafx.beans.property.*;
-
+// Plain immutable value; table cells wrap fields in properties only for the rows on screen
 public class InventoryItem {
-    private final IntegerProperty id;
-    private final StringProperty name;
-    private final IntegerProperty quantity;
-    private final DoubleProperty price;
-    private final IntegerProperty reorderLevel;
-    private final StringProperty category;
+    private final int id;
+    private final String name;
+    private final int quantity;
+    private final double price;
+    private final int reorderLevel;
+    private final String category;
 
     public InventoryItem(int id, String name, int quantity, double price, int reorderLevel, String category) {
-        this.id = new SimpleIntegerProperty(id);
-        this.name = new SimpleStringProperty(name);
-        this.quantity = new SimpleIntegerProperty(quantity);
-        this.price = new SimpleDoubleProperty(price);
-        this.reorderLevel = new SimpleIntegerProperty(reorderLevel);
-        this.category = new SimpleStringProperty(category);
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+        this.reorderLevel = reorderLevel;
+        this.category = category;
     }
 
-    // Getters and property accessors
-    public int getId() { return id.get(); }
-    public IntegerProperty idProperty() { return id; }
-
-    public String getName() { return name.get(); }
-    public StringProperty nameProperty() { return name; }
-
-    public int getQuantity() { return quantity.get(); }
-    public void setQuantity(int quantity) { this.quantity.set(quantity); }
-    public IntegerProperty quantityProperty() { return quantity; }
-
-    public double getPrice() { return price.get(); }
-    public DoubleProperty priceProperty() { return price; }
-
-    public int getReorderLevel() { return reorderLevel.get(); }
-    public IntegerProperty reorderLevelProperty() { return reorderLevel; }
-
-    public String getCategory() { return category.get(); }
-    public StringProperty categoryProperty() { return category; }
+    // Getters
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public int getQuantity() { return quantity; }
+    public double getPrice() { return price; }
+    public int getReorderLevel() { return reorderLevel; }
+    public String getCategory() { return category; }
     
     @Override
     public String toString() {
-        return name.get();
+        return name;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
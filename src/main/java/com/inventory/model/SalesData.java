@@ -1,53 +1,42 @@
 package com.inventory.model;
 
-import javafx.beans.property.*;
 import java.time.LocalDate;
 
+// Plain immutable value, one per stored or imported sales row. It holds no JavaFX properties,
+// so large histories cost a single object per row plus its date.
 public class SalesData {
-    private final IntegerProperty id;
-    private final IntegerProperty itemId;
-    private final StringProperty itemName;
-    private final IntegerProperty quantity;
-    private final DoubleProperty revenue;
-    private final ObjectProperty<LocalDate> saleDate;
-    private final IntegerProperty sold;
-    private final IntegerProperty remaining;
+    private final int id;
+    private final int itemId;
+    private final String itemName;
+    private final int quantity;
+    private final double revenue;
+    private final LocalDate saleDate;
+    private final int sold;
+    private final int remaining;
 
     public SalesData(int id, int itemId, String itemName, int quantity, double revenue, LocalDate saleDate) {
-        this.id = new SimpleIntegerProperty(id);
-        this.itemId = new SimpleIntegerProperty(itemId);
-        this.itemName = new SimpleStringProperty(itemName);
-        this.quantity = new SimpleIntegerProperty(quantity);
-        this.revenue = new SimpleDoubleProperty(revenue);
-        this.saleDate = new SimpleObjectProperty<>(saleDate);
-        this.sold = new SimpleIntegerProperty(0);
-        this.remaining = new SimpleIntegerProperty(quantity);
+        this(id, itemId, itemName, quantity, revenue, saleDate, 0, quantity);
     }
 
-    // Getters and setters
-    public int getId() { return id.get(); }
-    public IntegerProperty idProperty() { return id; }
-
-    public int getItemId() { return itemId.get(); }
-    public IntegerProperty itemIdProperty() { return itemId; }
-
-    public String getItemName() { return itemName.get(); }
-    public StringProperty itemNameProperty() { return itemName; }
-
-    public int getQuantity() { return quantity.get(); }
-    public IntegerProperty quantityProperty() { return quantity; }
-
-    public double getRevenue() { return revenue.get(); }
-    public DoubleProperty revenueProperty() { return revenue; }
-
-    public LocalDate getSaleDate() { return saleDate.get(); }
-    public ObjectProperty<LocalDate> saleDateProperty() { return saleDate; }
-
-    public int getSold() { return sold.get(); }
-    public void setSold(int value) { sold.set(value); }
-    public IntegerProperty soldProperty() { return sold; }
+    public SalesData(int id, int itemId, String itemName, int quantity, double revenue, LocalDate saleDate,
+                     int sold, int remaining) {
+        this.id = id;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.revenue = revenue;
+        this.saleDate = saleDate;
+        this.sold = sold;
+        this.remaining = remaining;
+    }
 
-    public int getRemaining() { return remaining.get(); }
-    public void setRemaining(int value) { remaining.set(value); }
-    public IntegerProperty remainingProperty() { return remaining; }
-} 
\ No newline at end of file
+    // Getters
+    public int getId() { return id; }
+    public int getItemId() { return itemId; }
+    public String getItemName() { return itemName; }
+    public int getQuantity() { return quantity; }
+    public double getRevenue() { return revenue; }
+    public LocalDate getSaleDate() { return saleDate; }
+    public int getSold() { return sold; }
+    public int getRemaining() { return remaining; }
+}
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.inventory.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the files ColumnarReportWriter writes (see there for the layout). Rows are handed out one row group
+// at a time, so memory stays bounded by the row group size. The footer is read first and every dataset is
+// checked against it: a file whose offsets or row counts disagree with its contents is rejected.
+public final class ColumnarReportReader {
+
+    // Values arrive as Integer (INT32), Double (FLOAT64), String (STRING) or LocalDate (DATE)
+    public interface Visitor {
+        void beginDataset(String name, List<String> columns) throws IOException;
+
+        void row(Object[] values) throws IOException;
+
+        void endDataset(String name, long rows) throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Magic and version, an empty footer (datasetCount, footerLength) and the trailing magic
+    private static final int MIN_FILE_SIZE = 4 + 1 + 1 + 4 + 4;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<String> dictionary = new ArrayList<>();
+
+    private ColumnarReportReader(FileChannel channel) {
+        this.channel = channel;
+        buffer.limit(0);
+    }
+
+    public static void read(Path file, Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new ColumnarReportReader(channel).readFile(visitor);
+        }
+    }
+
+    private void readFile(Visitor visitor) throws IOException {
+        long size = channel.size();
+        if (size < MIN_FILE_SIZE) {
+            throw corrupt("file is too short");
+        }
+
+        // Trailer: i32 footerLength, "ICOL"
+        seek(size - 8);
+        long footerStart = size - 8 - readInt();
+        expectMagic();
+        if (footerStart < 5 || footerStart > size - 8) {
+            throw corrupt("footer length out of range");
+        }
+        seek(footerStart);
+        int datasetCount = readByte();
+        List<String> names = new ArrayList<>();
+        long[] offsets = new long[datasetCount];
+        long[] rowCounts = new long[datasetCount];
+        for (int d = 0; d < datasetCount; d++) {
+            names.add(readName());
+            offsets[d] = readLong();
+            rowCounts[d] = readLong();
+        }
+
+        seek(0);
+        expectMagic();
+        int version = readByte();
+        if (version != ColumnarReportWriter.VERSION) {
+            throw new IOException("Unsupported columnar report version " + version);
+        }
+        for (int d = 0; d < datasetCount; d++) {
+            if (position() != offsets[d]) {
+                throw corrupt("dataset " + names.get(d) + " expected at offset " + offsets[d]
+                        + " but found at " + position());
+            }
+            long rows = readDataset(names.get(d), visitor);
+            if (rows != rowCounts[d]) {
+                throw corrupt("dataset " + names.get(d) + " has " + rows + " rows, footer says " + rowCounts[d]);
+            }
+        }
+        if (position() != footerStart) {
+            throw corrupt((footerStart - position()) + " bytes between the last dataset and the footer");
+        }
+    }
+
+    private long readDataset(String expectedName, Visitor visitor) throws IOException {
+        String name = readName();
+        if (!name.equals(expectedName)) {
+            throw corrupt("dataset " + name + " where the footer lists " + expectedName);
+        }
+        int columnCount = readByte();
+        byte[] types = new byte[columnCount];
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            types[c] = (byte) readByte();
+            columns.add(readName());
+        }
+        visitor.beginDataset(name, columns);
+
+        long total = 0;
+        long previousEpochDay = 0;
+        int[][] intColumns = new int[columnCount][];
+        double[][] doubleColumns = new double[columnCount][];
+        int rowCount;
+        while ((rowCount = readInt()) != 0) {
+            if (rowCount < 0) {
+                throw corrupt("negative row count in dataset " + name);
+            }
+            // Strings and dates are decoded into the int columns, as the writer buffers them
+            for (int c = 0; c < columnCount; c++) {
+                switch (types[c]) {
+                    case ColumnarReportWriter.STRING:
+                        long newEntries = readVarLong();
+                        for (long e = 0; e < newEntries; e++) {
+                            dictionary.add(readName());
+                        }
+                        int[] ids = intColumns[c] = grow(intColumns[c], rowCount);
+                        for (int r = 0; r < rowCount; r++) {
+                            long id = readVarLong();
+                            if (id < 0 || id >= dictionary.size()) {
+                                throw corrupt("string id " + id + " outside the dictionary of " + dictionary.size());
+                            }
+                            ids[r] = (int) id;
+                        }
+                        break;
+                    case ColumnarReportWriter.INT32:
+                        int[] ints = intColumns[c] = grow(intColumns[c], rowCount);
+                        for (int r = 0; r < rowCount; r++) {
+                            ints[r] = readInt();
+                        }
+                        break;
+                    case ColumnarReportWriter.FLOAT64:
+                        double[] doubles = doubleColumns[c] = grow(doubleColumns[c], rowCount);
+                        for (int r = 0; r < rowCount; r++) {
+                            doubles[r] = readDouble();
+                        }
+                        break;
+                    case ColumnarReportWriter.DATE:
+                        int[] days = intColumns[c] = grow(intColumns[c], rowCount);
+                        for (int r = 0; r < rowCount; r++) {
+                            long zigzag = readVarLong();
+                            previousEpochDay += (zigzag >>> 1) ^ -(zigzag & 1);
+                            days[r] = (int) previousEpochDay;
+                        }
+                        break;
+                    default:
+                        throw corrupt("unknown column type " + types[c] + " in dataset " + name);
+                }
+            }
+
+            for (int r = 0; r < rowCount; r++) {
+                Object[] values = new Object[columnCount];
+                for (int c = 0; c < columnCount; c++) {
+                    switch (types[c]) {
+                        case ColumnarReportWriter.STRING:
+                            values[c] = dictionary.get(intColumns[c][r]);
+                            break;
+                        case ColumnarReportWriter.INT32:
+                            values[c] = intColumns[c][r];
+                            break;
+                        case ColumnarReportWriter.FLOAT64:
+                            values[c] = doubleColumns[c][r];
+                            break;
+                        default:
+                            values[c] = LocalDate.ofEpochDay(intColumns[c][r]);
+                            break;
+                    }
+                }
+                visitor.row(values);
+            }
+            total += rowCount;
+        }
+        visitor.endDataset(name, total);
+        return total;
+    }
+
+    private static int[] grow(int[] column, int rows) {
+        return column != null && column.length >= rows ? column : new int[rows];
+    }
+
+    private static double[] grow(double[] column, int rows) {
+        return column != null && column.length >= rows ? column : new double[rows];
+    }
+
+    private static IOException corrupt(String detail) {
+        return new IOException("Corrupt columnar report: " + detail);
+    }
+
+    private void expectMagic() throws IOException {
+        for (byte b : ColumnarReportWriter.MAGIC) {
+            if (readByte() != b) {
+                throw new IOException("Not a columnar report (bad magic)");
+            }
+        }
+    }
+
+    private long position() throws IOException {
+        return channel.position() - buffer.remaining();
+    }
+
+    private void seek(long position) throws IOException {
+        channel.position(position);
+        buffer.clear().limit(0);
+    }
+
+    // Makes at least bytes readable, refilling the buffer from the channel
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Columnar report ends unexpectedly");
+            }
+        }
+        buffer.flip();
+    }
+
+    private int readByte() throws IOException {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    private long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    private double readDouble() throws IOException {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw corrupt("varint longer than 10 bytes");
+    }
+
+    private String readName() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw corrupt("name length " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        for (int i = 0; i < bytes.length; ) {
+            require(1);
+            int n = Math.min(buffer.remaining(), bytes.length - i);
+            buffer.get(bytes, i, n);
+            i += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
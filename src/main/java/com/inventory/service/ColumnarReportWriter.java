@@ -0,0 +1,296 @@
+package com.inventory.service;
+
+import com.inventory.model.InventoryItem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary report for analytics tools, written through a FileChannel. Each dataset is stored in
+// row groups, column by column. Strings go through one dictionary shared by the whole file, and dates
+// are stored as deltas between consecutive rows. All numbers are little-endian.
+//
+//   file      := "ICOL" u8 version dataset* footer
+//   dataset   := name u8 columnCount (u8 type, name)* rowGroup* u32 0
+//   rowGroup  := u32 rowCount column*
+//   column    := STRING   varint newEntries (name)* varint id * rowCount   (ids index the dictionary so far)
+//              | INT32    i32 * rowCount
+//              | FLOAT64  f64 * rowCount
+//              | DATE     zigzag varint of the first epoch day, then of each delta to the previous row
+//   name      := varint byteLength, UTF-8 bytes
+//   footer    := u8 datasetCount (name, i64 offset, i64 rowCount)* i32 footerLength "ICOL"
+class ColumnarReportWriter implements ReportWriter {
+    static final byte[] MAGIC = {'I', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+    static final byte STRING = 1;
+    static final byte INT32 = 2;
+    static final byte FLOAT64 = 3;
+    static final byte DATE = 4;
+
+    private static final int ROW_GROUP_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> pendingEntries = new ArrayList<>();
+    private final List<DatasetEntry> datasets = new ArrayList<>();
+    private Dataset forecasts;
+
+    ColumnarReportWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.put(MAGIC).put((byte) VERSION);
+    }
+
+    @Override
+    public void writeInventory(List<InventoryItem> items) throws IOException {
+        Dataset dataset = new Dataset("inventory",
+                new String[]{"id", "name", "quantity", "price", "reorder_level", "category"},
+                new byte[]{INT32, STRING, INT32, FLOAT64, INT32, STRING});
+        for (InventoryItem item : items) {
+            dataset.ints(0)[dataset.rows] = item.getId();
+            dataset.ints(1)[dataset.rows] = id(item.getName());
+            dataset.ints(2)[dataset.rows] = item.getQuantity();
+            dataset.doubles(3)[dataset.rows] = item.getPrice();
+            dataset.ints(4)[dataset.rows] = item.getReorderLevel();
+            dataset.ints(5)[dataset.rows] = id(item.getCategory());
+            dataset.endRow();
+        }
+        dataset.close();
+    }
+
+    @Override
+    public void beginForecasts() throws IOException {
+        forecasts = new Dataset("forecast",
+                new String[]{"item", "date", "forecast", "lower_bound", "upper_bound", "accuracy"},
+                new byte[]{STRING, DATE, FLOAT64, FLOAT64, FLOAT64, FLOAT64});
+    }
+
+    @Override
+    public void writeForecast(String itemName, LocalDate date, double forecast, double lowerBound,
+                              double upperBound, double accuracy) throws IOException {
+        int row = forecasts.rows;
+        forecasts.ints(0)[row] = id(itemName);
+        forecasts.ints(1)[row] = (int) date.toEpochDay();
+        forecasts.doubles(2)[row] = forecast;
+        forecasts.doubles(3)[row] = lowerBound;
+        forecasts.doubles(4)[row] = upperBound;
+        forecasts.doubles(5)[row] = accuracy;
+        forecasts.endRow();
+    }
+
+    @Override
+    public void endForecasts() throws IOException {
+        forecasts.close();
+        forecasts = null;
+    }
+
+    @Override
+    public void writeAlerts(List<InventoryItem> alerts) throws IOException {
+        Dataset dataset = new Dataset("alerts",
+                new String[]{"item", "current_stock", "reorder_level", "deficit"},
+                new byte[]{STRING, INT32, INT32, INT32});
+        for (InventoryItem item : alerts) {
+            dataset.ints(0)[dataset.rows] = id(item.getName());
+            dataset.ints(1)[dataset.rows] = item.getQuantity();
+            dataset.ints(2)[dataset.rows] = item.getReorderLevel();
+            dataset.ints(3)[dataset.rows] = item.getReorderLevel() - item.getQuantity();
+            dataset.endRow();
+        }
+        dataset.close();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        long footerStart = position();
+        ensure(1);
+        buffer.put((byte) datasets.size());
+        for (DatasetEntry entry : datasets) {
+            putName(entry.name);
+            ensure(16);
+            buffer.putLong(entry.offset);
+            buffer.putLong(entry.rows);
+        }
+        ensure(8);
+        buffer.putInt((int) (position() - footerStart));
+        buffer.put(MAGIC);
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Dictionary id for a string; strings seen for the first time go out with the next string column
+    private int id(String value) {
+        String key = value == null ? "" : value;
+        Integer id = dictionary.get(key);
+        if (id == null) {
+            id = dictionary.size();
+            dictionary.put(key, id);
+            pendingEntries.add(key);
+        }
+        return id;
+    }
+
+    private long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void putZigZag(long value) throws IOException {
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void putName(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        for (int i = 0; i < bytes.length; ) {
+            if (!buffer.hasRemaining()) flush();
+            int n = Math.min(buffer.remaining(), bytes.length - i);
+            buffer.put(bytes, i, n);
+            i += n;
+        }
+    }
+
+    private static final class DatasetEntry {
+        final String name;
+        final long offset;
+        long rows;
+
+        DatasetEntry(String name, long offset) {
+            this.name = name;
+            this.offset = offset;
+        }
+    }
+
+    // Buffers one row group column by column; dates and strings use the int columns
+    private final class Dataset {
+        private final byte[] types;
+        private final int[][] intColumns;
+        private final double[][] doubleColumns;
+        private final DatasetEntry entry;
+        private int previousEpochDay;
+        int rows;
+
+        Dataset(String name, String[] columnNames, byte[] types) throws IOException {
+            this.types = types;
+            this.intColumns = new int[types.length][];
+            this.doubleColumns = new double[types.length][];
+            for (int c = 0; c < types.length; c++) {
+                if (types[c] == FLOAT64) {
+                    doubleColumns[c] = new double[ROW_GROUP_SIZE];
+                } else {
+                    intColumns[c] = new int[ROW_GROUP_SIZE];
+                }
+            }
+
+            entry = new DatasetEntry(name, position());
+            datasets.add(entry);
+            putName(name);
+            ensure(1);
+            buffer.put((byte) types.length);
+            for (int c = 0; c < types.length; c++) {
+                ensure(1);
+                buffer.put(types[c]);
+                putName(columnNames[c]);
+            }
+        }
+
+        int[] ints(int column) {
+            return intColumns[column];
+        }
+
+        double[] doubles(int column) {
+            return doubleColumns[column];
+        }
+
+        void endRow() throws IOException {
+            if (++rows == ROW_GROUP_SIZE) {
+                writeRowGroup();
+            }
+        }
+
+        void close() throws IOException {
+            if (rows > 0) {
+                writeRowGroup();
+            }
+            ensure(4);
+            buffer.putInt(0);
+        }
+
+        private void writeRowGroup() throws IOException {
+            ensure(4);
+            buffer.putInt(rows);
+            for (int c = 0; c < types.length; c++) {
+                switch (types[c]) {
+                    case STRING:
+                        putVarLong(pendingEntries.size());
+                        for (String value : pendingEntries) {
+                            putName(value);
+                        }
+                        pendingEntries.clear();
+                        for (int r = 0; r < rows; r++) {
+                            putVarLong(intColumns[c][r]);
+                        }
+                        break;
+                    case INT32:
+                        for (int r = 0; r < rows; r++) {
+                            ensure(4);
+                            buffer.putInt(intColumns[c][r]);
+                        }
+                        break;
+                    case FLOAT64:
+                        for (int r = 0; r < rows; r++) {
+                            ensure(8);
+                            buffer.putDouble(doubleColumns[c][r]);
+                        }
+                        break;
+                    default:
+                        // Deltas carry on across row groups of the dataset
+                        for (int r = 0; r < rows; r++) {
+                            putZigZag((long) intColumns[c][r] - previousEpochDay);
+                            previousEpochDay = intColumns[c][r];
+                        }
+                        break;
+                }
+            }
+            entry.rows += rows;
+            rows = 0;
+        }
+    }
+}
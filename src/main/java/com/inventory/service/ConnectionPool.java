@@ -0,0 +1,424 @@
+package com.inventory.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionPool implements AutoCloseable {
+
+    // Source of physical connections, so the pool can run against any JDBC driver or a stand-in
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long maxWaitMillis;
+    private final int validationTimeoutSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private int totalConnections;
+    private int activeConnections;
+    private int waitingThreads;
+    private boolean closed;
+
+    // Metrics, guarded by lock
+    private long borrowCount;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+    private long timeoutCount;
+    private long createdCount;
+    private long evictedCount;
+    private long validationFailures;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize, long idleTimeoutMillis) {
+        this(() -> DriverManager.getConnection(url, user, password), minSize, maxSize, idleTimeoutMillis, 30_000, 2);
+    }
+
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long idleTimeoutMillis,
+                          long maxWaitMillis, int validationTimeoutSeconds) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+
+        // Open minSize connections up front instead of on the first eviction run; an unreachable database
+        // leaves the pool empty and the evictor retries
+        fillToMinimum();
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        while (true) {
+            Connection physical = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis) - (System.nanoTime() - start);
+                while (!closed && idle.isEmpty() && totalConnections >= maxSize) {
+                    if (remaining <= 0) {
+                        timeoutCount++;
+                        throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a pooled connection");
+                    }
+                    waitingThreads++;
+                    try {
+                        remaining = available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a pooled connection", e);
+                    } finally {
+                        waitingThreads--;
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    // Most recently returned first, so the warmest connections are reused
+                    physical = idle.pollFirst().connection;
+                } else {
+                    totalConnections++;
+                    create = true;
+                }
+                activeConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    physical = factory.create();
+                } catch (SQLException | RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+                lock.lock();
+                try {
+                    createdCount++;
+                } finally {
+                    lock.unlock();
+                }
+            } else if (!isValid(physical)) {
+                lock.lock();
+                try {
+                    validationFailures++;
+                } finally {
+                    lock.unlock();
+                }
+                discard(physical);
+                continue;
+            }
+
+            recordBorrow(System.nanoTime() - start);
+            return wrap(physical);
+        }
+    }
+
+    public Metrics getMetrics() {
+        lock.lock();
+        try {
+            return new Metrics(activeConnections, idle.size(), totalConnections, waitingThreads, borrowCount,
+                    totalWaitNanos, maxWaitNanos, timeoutCount, createdCount, evictedCount, validationFailures);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Connection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            for (IdleConnection ic : idle) {
+                toClose.add(ic.connection);
+            }
+            totalConnections -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        toClose.forEach(this::closeQuietly);
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordBorrow(long waitNanos) {
+        lock.lock();
+        try {
+            borrowCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops a borrowed connection that could not be used and frees its slot
+    private void discard(Connection physical) {
+        lock.lock();
+        try {
+            totalConnections--;
+            activeConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (physical != null) {
+            closeQuietly(physical);
+        }
+    }
+
+    private void release(Connection physical) {
+        boolean reusable = true;
+        try {
+            if (physical.isClosed()) {
+                reusable = false;
+            } else if (!physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        lock.lock();
+        try {
+            activeConnections--;
+            if (reusable && !closed) {
+                idle.addFirst(new IdleConnection(physical, System.currentTimeMillis()));
+                available.signal();
+                return;
+            }
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(physical);
+    }
+
+    private void evictIdle() {
+        List<Connection> toClose = new ArrayList<>();
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+            // Oldest idle connections sit at the tail of the deque
+            Iterator<IdleConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections > minSize) {
+                IdleConnection ic = it.next();
+                if (ic.lastUsed > cutoff) break;
+                it.remove();
+                totalConnections--;
+                evictedCount++;
+                toClose.add(ic.connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(this::closeQuietly);
+        fillToMinimum();
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) return;
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            Connection physical;
+            try {
+                physical = factory.create();
+            } catch (SQLException | RuntimeException e) {
+                lock.lock();
+                try {
+                    totalConnections--;
+                } finally {
+                    lock.unlock();
+                }
+                return; // Try again on the next eviction run
+            }
+
+            lock.lock();
+            try {
+                createdCount++;
+                if (!closed) {
+                    idle.addLast(new IdleConnection(physical, System.currentTimeMillis()));
+                    available.signal();
+                    continue;
+                }
+                totalConnections--;
+            } finally {
+                lock.unlock();
+            }
+            closeQuietly(physical);
+            return;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Nothing useful to do with a failure while discarding
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    private static final class IdleConnection {
+        final Connection connection;
+        final long lastUsed;
+
+        IdleConnection(Connection connection, long lastUsed) {
+            this.connection = connection;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    // Delegates to the physical connection; close() hands it back to the pool instead
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    public static final class Metrics {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waiting;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeouts;
+        private final long created;
+        private final long evicted;
+        private final long validationFailures;
+
+        Metrics(int active, int idle, int total, int waiting, long borrowCount, long totalWaitNanos,
+                long maxWaitNanos, long timeouts, long created, long evicted, long validationFailures) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.evicted = evicted;
+            this.validationFailures = validationFailures;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreated() { return created; }
+        public long getEvicted() { return evicted; }
+        public long getValidationFailures() { return validationFailures; }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d total=%d waiting=%d borrows=%d avgWait=%.2fms maxWait=%.2fms "
+                            + "timeouts=%d created=%d evicted=%d validationFailures=%d",
+                    active, idle, total, waiting, borrowCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                    timeouts, created, evicted, validationFailures);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.inventory.service;
+
+import com.inventory.model.InventoryItem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Plain RFC 4180 CSV, one file per dataset next to the chosen path:
+// report.csv becomes report_inventory.csv, report_forecast.csv and report_alerts.csv.
+// Rows are written as they arrive, so nothing is held beyond the writer's buffer.
+class CsvReportWriter implements ReportWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path inventoryFile;
+    private final Path forecastFile;
+    private final Path alertsFile;
+    private BufferedWriter forecastOut;
+    private final StringBuilder line = new StringBuilder(128);
+
+    CsvReportWriter(Path file) {
+        String name = file.getFileName().toString();
+        String base = name.toLowerCase().endsWith(".csv") ? name.substring(0, name.length() - 4) : name;
+        this.inventoryFile = file.resolveSibling(base + "_inventory.csv");
+        this.forecastFile = file.resolveSibling(base + "_forecast.csv");
+        this.alertsFile = file.resolveSibling(base + "_alerts.csv");
+    }
+
+    @Override
+    public void writeInventory(List<InventoryItem> items) throws IOException {
+        try (BufferedWriter out = open(inventoryFile)) {
+            out.write("id,name,quantity,price,reorder_level,category\n");
+            for (InventoryItem item : items) {
+                line.setLength(0);
+                line.append(item.getId()).append(',');
+                appendText(item.getName()).append(',');
+                line.append(item.getQuantity()).append(',')
+                    .append(item.getPrice()).append(',')
+                    .append(item.getReorderLevel()).append(',');
+                appendText(item.getCategory()).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    @Override
+    public void beginForecasts() throws IOException {
+        forecastOut = open(forecastFile);
+        forecastOut.write("item,date,forecast,lower_bound,upper_bound,accuracy\n");
+    }
+
+    @Override
+    public void writeForecast(String itemName, LocalDate date, double forecast, double lowerBound,
+                              double upperBound, double accuracy) throws IOException {
+        line.setLength(0);
+        appendText(itemName).append(',')
+            .append(date).append(',')
+            .append(forecast).append(',')
+            .append(lowerBound).append(',')
+            .append(upperBound).append(',')
+            .append(accuracy).append('\n');
+        forecastOut.append(line);
+    }
+
+    @Override
+    public void endForecasts() throws IOException {
+        forecastOut.close();
+        forecastOut = null;
+    }
+
+    @Override
+    public void writeAlerts(List<InventoryItem> alerts) throws IOException {
+        try (BufferedWriter out = open(alertsFile)) {
+            out.write("item,current_stock,reorder_level,deficit\n");
+            for (InventoryItem item : alerts) {
+                line.setLength(0);
+                appendText(item.getName()).append(',')
+                    .append(item.getQuantity()).append(',')
+                    .append(item.getReorderLevel()).append(',')
+                    .append(item.getReorderLevel() - item.getQuantity()).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    @Override
+    public void finish() {
+        // Every dataset is closed as soon as it is complete
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (forecastOut != null) {
+            forecastOut.close();
+        }
+    }
+
+    private static BufferedWriter open(Path file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    // Quotes only values that need it
+    private StringBuilder appendText(String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
@@ -2,29 +2,342 @@ package com.inventory.service;
 
 import com.inventory.model.InventoryItem;
 import com.inventory.model.SalesData;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.jdbc.JdbcConnection;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 public class DatabaseService {
-    private final String DB_URL = "jdbc:mysql://localhost:3306/inventory_db";
-    private final String USER = "root";
-    private final String PASS = "password";
-    private final boolean USE_SAMPLE_DATA = true; // Use sample data by default
+    // Connection settings from db.properties on the classpath; a missing file or key keeps the default
+    private final Properties dbConfig = loadDbConfig("/db.properties");
+    // useCursorFetch lets Connector/J honour the fetch size instead of buffering whole result sets
+    private final String DB_URL = dbConfig.getProperty("db.url", "jdbc:mysql://localhost:3306/inventory_db?useCursorFetch=true");
+    private final String USER = dbConfig.getProperty("db.user", "root");
+    private final String PASS = dbConfig.getProperty("db.password", "password");
+    private final int POOL_MIN_SIZE = (int) numberSetting("db.pool.minSize", 2);
+    private final int POOL_MAX_SIZE = (int) numberSetting("db.pool.maxSize", 10);
+    private final long POOL_IDLE_TIMEOUT_MS = numberSetting("db.pool.idleTimeoutMs", 5 * 60 * 1000);
+    private final int MAX_IDS_PER_QUERY = 1000;
+    // Versioned schema scripts under /sql/migrations, applied in order at startup
+    private final List<String> MIGRATIONS = List.of(
+        "V1__baseline.sql",
+        "V2__sales_history_index_and_partitions.sql",
+        "V3__sales_history_unique_item_date.sql"
+    );
+    private int salesFetchSize = 1000;
+    // Sales written while in sample data mode, so uploads show up in later reads
+    private final Map<Integer, List<SalesData>> sampleSalesStore = new ConcurrentHashMap<>();
+    // Catalogue served in sample data mode instead of the demo items, once loadSampleData was called
+    private volatile List<InventoryItem> sampleItems;
+    private final boolean USE_SAMPLE_DATA;
+    private final ConnectionPool pool;
+    private final SalesHistoryWriter salesWriter = new SalesHistoryWriter(this);
+    private volatile String databaseId;
+    // Read queries issued by each thread, so a caller can count what one unit of work costs
+    private final ThreadLocal<int[]> queryCount = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final MetricsRegistry.Histogram CONNECTION_ACQUIRE = METRICS.histogram(
+            "inventory_db_connection_acquire_seconds", "Time to borrow a connection from the pool");
+
+    public DatabaseService() {
+        this.USE_SAMPLE_DATA = true; // Use sample data by default
+        this.pool = USE_SAMPLE_DATA ? null
+                : new ConnectionPool(DB_URL, USER, PASS, POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MS);
+        if (!USE_SAMPLE_DATA) {
+            start();
+        }
+    }
+
+    // Runs against the given pool instead of sample data, e.g. one backed by an in-memory database. The
+    // schema is migrated before the constructor returns.
+    public DatabaseService(ConnectionPool pool) {
+        this.USE_SAMPLE_DATA = false;
+        this.pool = pool;
+        start();
+    }
+
+    // The one startup path for every database-backed service, so no caller can skip the migrations
+    private void start() {
+        try {
+            migrate();
+        } catch (RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+        registerPoolGauges();
+    }
+
+    private static Properties loadDbConfig(String resource) {
+        Properties config = new Properties();
+        try (InputStream in = DatabaseService.class.getResourceAsStream(resource)) {
+            if (in != null) {
+                config.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + resource + ": " + e.getMessage());
+        }
+        return config;
+    }
+
+    private long numberSetting(String key, long defaultValue) {
+        String value = dbConfig.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + key + " in db.properties: " + value);
+        }
+    }
+
+    private void registerPoolGauges() {
+        if (pool == null) return;
+        String help = "Pooled connections by state";
+        METRICS.registerGauge("inventory_db_pool_connections", help, () -> pool.getMetrics().getActive(), "state", "active");
+        METRICS.registerGauge("inventory_db_pool_connections", help, () -> pool.getMetrics().getIdle(), "state", "idle");
+        METRICS.registerGauge("inventory_db_pool_waiting_threads", "Threads waiting for a pooled connection",
+                () -> pool.getMetrics().getWaiting());
+        METRICS.registerCounter("inventory_db_pool_timeouts_total", "Connection borrows that timed out",
+                () -> pool.getMetrics().getTimeouts());
+    }
+
+    // Latency and row count of one DatabaseService call, labelled by method; rows < 0 records latency only
+    private static void recordCall(String method, long startNanos, long rows) {
+        METRICS.histogram("inventory_db_call_seconds", "Latency of DatabaseService calls, including sample mode",
+                "method", method).observeNanos(System.nanoTime() - startNanos);
+        if (rows >= 0) {
+            METRICS.counter("inventory_db_rows_total", "Rows read or written by DatabaseService calls",
+                    "method", method).add(rows);
+        }
+    }
+    
+    public boolean isUsingSampleData() {
+        return USE_SAMPLE_DATA;
+    }
+
+    // Names the source of the sales rows: the JDBC URL without its parameters (which may hold credentials)
+    // and the current catalog, or "sample". Saved model state is only reused against the same source.
+    public String getDatabaseId() {
+        if (USE_SAMPLE_DATA) {
+            return "sample";
+        }
+        String id = databaseId;
+        if (id == null) {
+            try (Connection conn = getConnection()) {
+                String url = conn.getMetaData().getURL();
+                int params = url.indexOf('?');
+                id = (params < 0 ? url : url.substring(0, params)) + "#" + conn.getCatalog();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Failed to identify database: " + e.getMessage());
+            }
+            databaseId = id;
+        }
+        return id;
+    }
+
+    // Sample data mode only: replaces the demo catalogue and histories, e.g. with generated data for benchmarks
+    public void loadSampleData(List<InventoryItem> items, Map<Integer, List<SalesData>> history) {
+        if (!USE_SAMPLE_DATA) {
+            throw new IllegalStateException("Sample data can only be loaded in sample data mode");
+        }
+        sampleItems = new ArrayList<>(items);
+        sampleSalesStore.clear();
+        history.forEach((itemId, sales) -> sampleSalesStore.put(itemId, new ArrayList<>(sales)));
+    }
+
+    // Writer used for the inserts done here; its mode and statement size can be tuned
+    public SalesHistoryWriter getSalesWriter() {
+        return salesWriter;
+    }
     
     public Connection getConnection() throws SQLException {
         if (USE_SAMPLE_DATA) {
             throw new SQLException("Using sample data, no database connection");
         }
-        return DriverManager.getConnection(DB_URL, USER, PASS);
+        long start = System.nanoTime();
+        Connection connection = pool.getConnection();
+        CONNECTION_ACQUIRE.observeNanos(System.nanoTime() - start);
+        return connection;
+    }
+
+    // Applies every migration script newer than the version recorded in schema_version. Runs at
+    // construction; calling it again only applies scripts added since.
+    public void migrate() {
+        if (USE_SAMPLE_DATA) {
+            return;
+        }
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "script VARCHAR(255) NOT NULL, "
+                    + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+
+            int currentVersion = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                if (rs.next()) {
+                    currentVersion = rs.getInt(1);
+                }
+            }
+
+            for (String script : MIGRATIONS) {
+                int version = Integer.parseInt(script.substring(1, script.indexOf("__")));
+                if (version <= currentVersion) {
+                    continue;
+                }
+                // MySQL commits DDL implicitly, so each statement takes effect on its own. A failed run
+                // can leave some of them applied; guarded statements are skipped on the retry.
+                for (MigrationStatement statement : readStatements("/sql/migrations/" + script)) {
+                    if (statement.onlyIf != null && !holds(stmt, statement.onlyIf)) {
+                        continue;
+                    }
+                    stmt.execute(statement.sql);
+                }
+                try (PreparedStatement record = conn.prepareStatement(
+                        "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+                    record.setInt(1, version);
+                    record.setString(2, script);
+                    record.executeUpdate();
+                }
+                System.out.println("Applied schema migration " + script);
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to migrate database schema: " + e.getMessage());
+        }
+    }
+
+    // True when the guard query's first column is non-zero
+    private static boolean holds(Statement stmt, String query) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() && rs.getLong(1) != 0;
+        }
+    }
+
+    // A statement of a migration script, with the query from a preceding "-- only if:" line, if any
+    private static final class MigrationStatement {
+        final String sql;
+        final String onlyIf;
+
+        MigrationStatement(String sql, String onlyIf) {
+            this.sql = sql;
+            this.onlyIf = onlyIf;
+        }
+    }
+
+    private List<MigrationStatement> readStatements(String resource) throws IOException {
+        InputStream in = DatabaseService.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Missing migration script " + resource);
+        }
+
+        List<MigrationStatement> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String onlyIf = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.startsWith("-- only if:")) {
+                    onlyIf = trimmed.substring("-- only if:".length()).trim();
+                    continue;
+                }
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    current.setLength(current.lastIndexOf(";"));
+                    statements.add(new MigrationStatement(current.toString(), onlyIf));
+                    current.setLength(0);
+                    onlyIf = null;
+                }
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(new MigrationStatement(current.toString(), onlyIf));
+        }
+        return statements;
+    }
+
+    public int getSalesFetchSize() {
+        return salesFetchSize;
+    }
+
+    public void setSalesFetchSize(int salesFetchSize) {
+        if (salesFetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + salesFetchSize);
+        }
+        this.salesFetchSize = salesFetchSize;
+    }
+
+    // Read queries issued on the calling thread since the last reset; sample mode counts the reads it stands in for
+    public int getQueryCount() {
+        return queryCount.get()[0];
+    }
+
+    // Returns the count so far and starts a new one
+    public int resetQueryCount() {
+        int[] count = queryCount.get();
+        int previous = count[0];
+        count[0] = 0;
+        return previous;
+    }
+
+    private void countQuery() {
+        queryCount.get()[0]++;
+    }
+
+    public ConnectionPool.Metrics getPoolMetrics() {
+        return pool == null ? null : pool.getMetrics();
+    }
+
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
     }
     
     public List<InventoryItem> getAllInventoryItems() {
+        long start = System.nanoTime();
+        List<InventoryItem> items = loadAllInventoryItems();
+        recordCall("getAllInventoryItems", start, items.size());
+        return items;
+    }
+
+    private List<InventoryItem> loadAllInventoryItems() {
         List<InventoryItem> items = new ArrayList<>();
+        countQuery();
         
         if (USE_SAMPLE_DATA) {
-            createSampleData(items);
+            List<InventoryItem> loaded = sampleItems;
+            if (loaded != null) {
+                items.addAll(loaded);
+            } else {
+                createSampleData(items);
+            }
             return items;
         }
         
@@ -52,7 +365,81 @@ public class DatabaseService {
         return items;
     }
     
+    // Adds an inventory item per name, with no stock, price or reorder level and the category "Uncategorized",
+    // for products that first appear in imported sales. Returns each name's generated ID, in the given order.
+    public Map<String, Integer> createInventoryItems(Collection<String> names) {
+        long start = System.nanoTime();
+        Map<String, Integer> ids = insertInventoryItems(names);
+        recordCall("createInventoryItems", start, ids.size());
+        return ids;
+    }
+
+    private Map<String, Integer> insertInventoryItems(Collection<String> names) {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+
+        if (USE_SAMPLE_DATA) {
+            synchronized (this) {
+                List<InventoryItem> items = loadAllInventoryItems();
+                int nextId = items.stream().mapToInt(InventoryItem::getId).max().orElse(0) + 1;
+                for (String name : names) {
+                    ids.put(name, nextId);
+                    items.add(new InventoryItem(nextId++, name, 0, 0, 0, "Uncategorized"));
+                }
+                sampleItems = items;
+            }
+            return ids;
+        }
+
+        String insertQuery = "INSERT INTO inventory_items (name, quantity, price, reorder_level, category) "
+                + "VALUES (?, 0, 0, 0, 'Uncategorized')";
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+
+            // Start transaction
+            conn.setAutoCommit(false);
+
+            try {
+                for (String name : names) {
+                    stmt.setString(1, name);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (String name : names) {
+                        if (!keys.next()) {
+                            throw new SQLException("No generated ID for inventory item " + name);
+                        }
+                        ids.put(name, keys.getInt(1));
+                    }
+                }
+
+                // Commit transaction
+                conn.commit();
+                return ids;
+            } catch (SQLException e) {
+                // Rollback on error
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to add inventory items: " + e.getMessage());
+        }
+    }
+
     public List<InventoryItem> getLowStockItems() {
+        long start = System.nanoTime();
+        List<InventoryItem> items = loadLowStockItems();
+        recordCall("getLowStockItems", start, items.size());
+        return items;
+    }
+
+    private List<InventoryItem> loadLowStockItems() {
         List<InventoryItem> items = new ArrayList<>();
         
         if (USE_SAMPLE_DATA) {
@@ -66,6 +453,7 @@ public class DatabaseService {
         }
         
         String query = "SELECT * FROM inventory_items WHERE quantity <= reorder_level";
+        countQuery();
         
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
@@ -95,14 +483,23 @@ public class DatabaseService {
     }
     
     public List<SalesData> getSalesHistory(int itemId) {
+        long start = System.nanoTime();
+        List<SalesData> sales = loadSalesHistory(itemId);
+        recordCall("getSalesHistory", start, sales.size());
+        return sales;
+    }
+
+    private List<SalesData> loadSalesHistory(int itemId) {
         List<SalesData> sales = new ArrayList<>();
+        countQuery();
         
         if (USE_SAMPLE_DATA) {
-            createSampleSalesData(sales, itemId);
-            return sales;
+            return sampleSalesHistory(itemId);
         }
         
-        String query = "SELECT * FROM sales_history WHERE item_id = ? ORDER BY sale_date ASC";
+        // Only columns held in idx_sales_history_item_date, so the query is served from the index
+        String query = "SELECT id, item_id, quantity, revenue, sale_date FROM sales_history "
+                + "WHERE item_id = ? ORDER BY sale_date ASC";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, itemId);
@@ -126,7 +523,192 @@ public class DatabaseService {
         return sales;
     }
     
+    public Map<Integer, List<SalesData>> getAllSalesHistory() {
+        Map<Integer, List<SalesData>> history = new LinkedHashMap<>();
+        streamSalesHistory(null, history::put);
+        return history;
+    }
+
+    public Map<Integer, List<SalesData>> getSalesHistory(Collection<Integer> itemIds) {
+        Map<Integer, List<SalesData>> history = new LinkedHashMap<>();
+        streamSalesHistory(itemIds, history::put);
+        // Items without any sales still get an entry, matching getSalesHistory(int)
+        for (Integer itemId : new TreeSet<>(itemIds)) {
+            history.putIfAbsent(itemId, new ArrayList<>());
+        }
+        return history;
+    }
+
+    // Reads sales_history for the given items (or every item when itemIds is null) in item_id, sale_date
+    // order and hands each item's rows to the consumer as soon as they are complete, so only one item's
+    // history is held in memory at a time. Items without sales are not reported.
+    public void streamSalesHistory(Collection<Integer> itemIds, BiConsumer<Integer, List<SalesData>> consumer) {
+        long start = System.nanoTime();
+        long[] rows = new long[1];
+        try {
+            readSalesHistory(itemIds, (itemId, history) -> {
+                rows[0] += history.size();
+                consumer.accept(itemId, history);
+            });
+        } finally {
+            // Includes the consumer's time, which callers overlap with the read
+            recordCall("streamSalesHistory", start, rows[0]);
+        }
+    }
+
+    private void readSalesHistory(Collection<Integer> itemIds, BiConsumer<Integer, List<SalesData>> consumer) {
+        if (USE_SAMPLE_DATA) {
+            countQuery();
+            for (int itemId : sampleItemIds(itemIds)) {
+                consumer.accept(itemId, sampleSalesHistory(itemId));
+            }
+            return;
+        }
+
+        Set<Integer> delivered = new HashSet<>();
+        try (Connection conn = getConnection()) {
+            if (itemIds == null) {
+                streamSalesQuery(conn, "SELECT id, item_id, quantity, revenue, sale_date FROM sales_history "
+                        + "ORDER BY item_id ASC, sale_date ASC", null, consumer, delivered);
+                return;
+            }
+            List<Integer> sortedIds = new ArrayList<>(new TreeSet<>(itemIds));
+            for (int from = 0; from < sortedIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = sortedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sortedIds.size()));
+                StringBuilder query = new StringBuilder(
+                        "SELECT id, item_id, quantity, revenue, sale_date FROM sales_history WHERE item_id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    query.append(i == 0 ? "?" : ",?");
+                }
+                query.append(") ORDER BY item_id ASC, sale_date ASC");
+                streamSalesQuery(conn, query.toString(), chunk, consumer, delivered);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            // Generate sample sales data for whatever was not delivered yet
+            for (int itemId : sampleItemIds(itemIds)) {
+                if (!delivered.contains(itemId)) {
+                    List<SalesData> sales = new ArrayList<>();
+                    createSampleSalesData(sales, itemId);
+                    consumer.accept(itemId, sales);
+                }
+            }
+        }
+    }
+
+    private void streamSalesQuery(Connection conn, String query, List<Integer> params,
+                                  BiConsumer<Integer, List<SalesData>> consumer, Set<Integer> delivered) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(query,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            countQuery();
+            pstmt.setFetchSize(salesFetchSize);
+            if (params != null) {
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setInt(i + 1, params.get(i));
+                }
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int currentItemId = -1;
+                List<SalesData> current = null;
+                while (rs.next()) {
+                    int itemId = rs.getInt("item_id");
+                    if (current == null || itemId != currentItemId) {
+                        if (current != null) {
+                            consumer.accept(currentItemId, current);
+                            delivered.add(currentItemId);
+                        }
+                        currentItemId = itemId;
+                        current = new ArrayList<>();
+                    }
+                    current.add(new SalesData(
+                        rs.getInt("id"),
+                        itemId,
+                        "",
+                        rs.getInt("quantity"),
+                        rs.getDouble("revenue"),
+                        rs.getDate("sale_date").toLocalDate()
+                    ));
+                }
+                if (current != null) {
+                    consumer.accept(currentItemId, current);
+                    delivered.add(currentItemId);
+                }
+            }
+        }
+    }
+
+    private Collection<Integer> sampleItemIds(Collection<Integer> itemIds) {
+        if (itemIds != null) {
+            return new TreeSet<>(itemIds);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (InventoryItem item : getAllInventoryItems()) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    // Row count, latest sale date and total quantity of each item's sales, one grouped query per chunk of
+    // IDs served from idx_sales_history_item_date. Items without sales are left out; so is every item if the
+    // query fails, which makes callers treat them as changed.
+    Map<Integer, SalesFingerprint> getSalesFingerprints(Collection<Integer> itemIds) {
+        long start = System.nanoTime();
+        Map<Integer, SalesFingerprint> fingerprints = loadSalesFingerprints(itemIds);
+        recordCall("getSalesFingerprints", start, fingerprints.size());
+        return fingerprints;
+    }
+
+    private Map<Integer, SalesFingerprint> loadSalesFingerprints(Collection<Integer> itemIds) {
+        Map<Integer, SalesFingerprint> fingerprints = new HashMap<>();
+        if (USE_SAMPLE_DATA) {
+            countQuery();
+            for (int itemId : new TreeSet<>(itemIds)) {
+                List<SalesData> history = sampleSalesHistory(itemId);
+                if (!history.isEmpty()) {
+                    fingerprints.put(itemId, SalesFingerprint.of(history));
+                }
+            }
+            return fingerprints;
+        }
+
+        List<Integer> sortedIds = new ArrayList<>(new TreeSet<>(itemIds));
+        try (Connection conn = getConnection()) {
+            for (int from = 0; from < sortedIds.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = sortedIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, sortedIds.size()));
+                StringBuilder query = new StringBuilder(
+                        "SELECT item_id, COUNT(*), MAX(sale_date), SUM(quantity) FROM sales_history WHERE item_id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    query.append(i == 0 ? "?" : ",?");
+                }
+                query.append(") GROUP BY item_id");
+                try (PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+                    countQuery();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            fingerprints.put(rs.getInt(1), new SalesFingerprint(rs.getLong(2),
+                                    rs.getDate(3).toLocalDate().toEpochDay(), rs.getLong(4)));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            fingerprints.clear();
+        }
+        return fingerprints;
+    }
+
     public boolean updateInventoryQuantity(int itemId, int newQuantity) {
+        long start = System.nanoTime();
+        boolean updated = writeInventoryQuantity(itemId, newQuantity);
+        recordCall("updateInventoryQuantity", start, updated ? 1 : 0);
+        return updated;
+    }
+
+    private boolean writeInventoryQuantity(int itemId, int newQuantity) {
         if (USE_SAMPLE_DATA) {
             // Just pretend the update was successful
             return true;
@@ -146,18 +728,23 @@ public class DatabaseService {
     }
     
     public void updateSalesHistory(int itemId, List<SalesData> newData) {
+        long start = System.nanoTime();
+        int inserted = replaceSalesHistory(itemId, newData);
+        recordCall("updateSalesHistory", start, inserted);
+    }
+
+    private int replaceSalesHistory(int itemId, List<SalesData> newData) {
         if (USE_SAMPLE_DATA) {
             // In sample data mode, we'll just update the in-memory data
             // This is a simplified version for demo purposes
-            return;
+            sampleSalesStore.put(itemId, new ArrayList<>(newData));
+            return newData.size();
         }
         
         String deleteQuery = "DELETE FROM sales_history WHERE item_id = ?";
-        String insertQuery = "INSERT INTO sales_history (item_id, quantity, revenue, sale_date) VALUES (?, ?, ?, ?)";
         
         try (Connection conn = getConnection();
-             PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery);
-             PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
+             PreparedStatement deleteStmt = conn.prepareStatement(deleteQuery)) {
             
             // Start transaction
             conn.setAutoCommit(false);
@@ -167,18 +754,12 @@ public class DatabaseService {
                 deleteStmt.setInt(1, itemId);
                 deleteStmt.executeUpdate();
                 
-                // Insert new data
-                for (SalesData data : newData) {
-                    insertStmt.setInt(1, itemId);
-                    insertStmt.setInt(2, data.getQuantity());
-                    insertStmt.setDouble(3, data.getRevenue());
-                    insertStmt.setDate(4, java.sql.Date.valueOf(data.getSaleDate()));
-                    insertStmt.addBatch();
-                }
-                insertStmt.executeBatch();
+                // Insert new data in bounded statements
+                int inserted = salesWriter.insert(conn, itemId, newData);
                 
                 // Commit transaction
                 conn.commit();
+                return inserted;
             } catch (SQLException e) {
                 // Rollback on error
                 conn.rollback();
@@ -192,6 +773,172 @@ public class DatabaseService {
         }
     }
     
+    // Merges uploaded sales into the stored history keyed on (item_id, sale_date): new dates are inserted,
+    // dates whose quantity or revenue changed are updated and everything else is left alone. If the upload
+    // has several rows for the same date, the last one wins. Safe to run concurrently for the same item.
+    public MergeResult mergeSalesHistory(int itemId, List<SalesData> newData) {
+        long start = System.nanoTime();
+        MergeResult result = mergeSales(itemId, newData);
+        recordCall("mergeSalesHistory", start, newData.size());
+        return result;
+    }
+
+    private MergeResult mergeSales(int itemId, List<SalesData> newData) {
+        Map<LocalDate, SalesData> incoming = new LinkedHashMap<>();
+        for (SalesData data : newData) {
+            incoming.put(data.getSaleDate(), data);
+        }
+
+        if (USE_SAMPLE_DATA) {
+            return mergeSampleSales(itemId, incoming);
+        }
+
+        String countQuery = "SELECT COUNT(*) FROM sales_history WHERE item_id = ?";
+        List<SalesData> rows = new ArrayList<>(incoming.values());
+
+        try (Connection conn = getConnection();
+             PreparedStatement countStmt = conn.prepareStatement(countQuery)) {
+
+            // Start transaction
+            conn.setAutoCommit(false);
+
+            try {
+                // The unique key on (item_id, sale_date) decides between insert and update, so two uploads
+                // of the same day cannot both insert it. The counts below only feed the summary.
+                long before = count(countStmt, itemId);
+                int affected = salesWriter.upsert(conn, itemId, rows);
+                int inserted = (int) (count(countStmt, itemId) - before);
+                // 1 per inserted row and 2 per changed row; an unchanged row counts 1 when the connection
+                // reports found rows (the Connector/J default) and 0 otherwise
+                int updated = reportsFoundRows(conn) ? affected - rows.size() : (affected - inserted) / 2;
+                int unchanged = rows.size() - inserted - updated;
+
+                // Commit transaction
+                conn.commit();
+                return new MergeResult(inserted, updated, unchanged);
+            } catch (SQLException e) {
+                // Rollback on error
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to merge sales history: " + e.getMessage());
+        }
+    }
+
+    private static long count(PreparedStatement countStmt, int itemId) throws SQLException {
+        countStmt.setInt(1, itemId);
+        try (ResultSet rs = countStmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static boolean reportsFoundRows(Connection conn) throws SQLException {
+        return conn.isWrapperFor(JdbcConnection.class)
+                && !conn.unwrap(JdbcConnection.class).getPropertySet()
+                        .getBooleanProperty(PropertyKey.useAffectedRows).getValue();
+    }
+
+    // Appends rows for any number of items in one transaction, without checking for existing dates; a date
+    // an item already has fails the transaction on the unique key. Meant for backfills into empty ranges;
+    // uploads that may overlap stored history go through merge.
+    public int insertSalesHistory(List<SalesData> rows) {
+        long start = System.nanoTime();
+        int inserted = insertSales(rows);
+        recordCall("insertSalesHistory", start, inserted);
+        return inserted;
+    }
+
+    private int insertSales(List<SalesData> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        if (USE_SAMPLE_DATA) {
+            Map<Integer, List<SalesData>> byItem = new HashMap<>();
+            for (SalesData data : rows) {
+                byItem.computeIfAbsent(data.getItemId(), k -> new ArrayList<>()).add(data);
+            }
+            byItem.forEach((itemId, added) -> sampleSalesStore.compute(itemId, (id, stored) -> {
+                List<SalesData> result = stored != null ? new ArrayList<>(stored) : sampleSalesHistory(itemId);
+                result.addAll(added);
+                result.sort(Comparator.comparing(SalesData::getSaleDate));
+                return result;
+            }));
+            return rows.size();
+        }
+
+        try (Connection conn = getConnection()) {
+
+            // Start transaction
+            conn.setAutoCommit(false);
+
+            try {
+                int inserted = salesWriter.insert(conn, rows);
+
+                // Commit transaction
+                conn.commit();
+                return inserted;
+            } catch (SQLException e) {
+                // Rollback on error
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to insert sales history: " + e.getMessage());
+        }
+    }
+
+    private MergeResult mergeSampleSales(int itemId, Map<LocalDate, SalesData> incoming) {
+        int[] counts = new int[3];
+        sampleSalesStore.compute(itemId, (id, stored) -> {
+            Map<LocalDate, SalesData> merged = new LinkedHashMap<>();
+            if (stored != null) {
+                for (SalesData data : stored) {
+                    merged.putIfAbsent(data.getSaleDate(), data);
+                }
+            }
+            for (SalesData data : incoming.values()) {
+                SalesData current = merged.get(data.getSaleDate());
+                if (current == null) {
+                    counts[0]++;
+                } else if (current.getQuantity() != data.getQuantity()
+                        || toCents(current.getRevenue()) != toCents(data.getRevenue())) {
+                    counts[1]++;
+                } else {
+                    counts[2]++;
+                    continue;
+                }
+                merged.put(data.getSaleDate(), data);
+            }
+            List<SalesData> result = new ArrayList<>(merged.values());
+            result.sort(Comparator.comparing(SalesData::getSaleDate));
+            return result;
+        });
+        return new MergeResult(counts[0], counts[1], counts[2]);
+    }
+
+    // revenue is stored as DECIMAL(10,2), so compare it at cent precision
+    private long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    private List<SalesData> sampleSalesHistory(int itemId) {
+        List<SalesData> stored = sampleSalesStore.get(itemId);
+        if (stored != null) {
+            return new ArrayList<>(stored);
+        }
+        List<SalesData> sales = new ArrayList<>();
+        createSampleSalesData(sales, itemId);
+        return sales;
+    }
+
     private void createSampleData(List<InventoryItem> items) {
         // Sample data for demo purposes
         items.add(new InventoryItem(1, "Laptop", 15, 999.99, 5, "Electronics"));
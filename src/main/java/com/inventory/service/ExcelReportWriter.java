@@ -0,0 +1,190 @@
+package com.inventory.service;
+
+import com.inventory.model.InventoryItem;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Styled .xlsx report. The workbook is streamed: sheets keep a window of rows in memory and spill the
+// rest to compressed temp files, so heap use does not grow with the number of items.
+class ExcelReportWriter implements ReportWriter {
+    // Column widths in characters, fixed because autoSizeColumn measures every cell
+    private static final int[] INVENTORY_WIDTHS = {8, 30, 12, 12, 14, 18};
+    private static final int[] FORECAST_WIDTHS = {30, 12, 12, 14, 14, 10};
+    private static final int[] ALERT_WIDTHS = {30, 14, 14, 10};
+
+    private final Path file;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle numberStyle;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private Sheet forecastSheet;
+    private int forecastRowNum;
+
+    ExcelReportWriter(Path file, int rowWindow) {
+        this.file = file;
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+
+        // Create styles
+        headerStyle = createHeaderStyle(workbook);
+        dateStyle = createDateStyle(workbook);
+        numberStyle = createNumberStyle(workbook);
+    }
+
+    @Override
+    public void writeInventory(List<InventoryItem> items) {
+        Sheet sheet = workbook.createSheet("Inventory");
+        createHeader(sheet, "ID", "Name", "Quantity", "Price", "Reorder Level", "Category");
+
+        // Add data
+        int rowNum = 1;
+        for (InventoryItem item : items) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(item.getId());
+            row.createCell(1).setCellValue(item.getName());
+            
+            Cell quantityCell = row.createCell(2);
+            quantityCell.setCellValue(item.getQuantity());
+            quantityCell.setCellStyle(numberStyle);
+            
+            Cell priceCell = row.createCell(3);
+            priceCell.setCellValue(item.getPrice());
+            priceCell.setCellStyle(numberStyle);
+            
+            Cell reorderCell = row.createCell(4);
+            reorderCell.setCellValue(item.getReorderLevel());
+            reorderCell.setCellStyle(numberStyle);
+            
+            row.createCell(5).setCellValue(item.getCategory());
+        }
+
+        setColumnWidths(sheet, INVENTORY_WIDTHS);
+    }
+
+    @Override
+    public void beginForecasts() {
+        forecastSheet = workbook.createSheet("Sales Forecast");
+        createHeader(forecastSheet, "Item", "Date", "Forecast", "Lower Bound", "Upper Bound", "Accuracy");
+        forecastRowNum = 1;
+    }
+
+    @Override
+    public void writeForecast(String itemName, LocalDate date, double forecast, double lowerBound,
+                              double upperBound, double accuracy) {
+        Row row = forecastSheet.createRow(forecastRowNum++);
+        row.createCell(0).setCellValue(itemName);
+        
+        Cell dateCell = row.createCell(1);
+        dateCell.setCellValue(date.format(formatter));
+        dateCell.setCellStyle(dateStyle);
+        
+        Cell forecastCell = row.createCell(2);
+        forecastCell.setCellValue(forecast);
+        forecastCell.setCellStyle(numberStyle);
+        
+        Cell lowerCell = row.createCell(3);
+        lowerCell.setCellValue(lowerBound);
+        lowerCell.setCellStyle(numberStyle);
+        
+        Cell upperCell = row.createCell(4);
+        upperCell.setCellValue(upperBound);
+        upperCell.setCellStyle(numberStyle);
+        
+        Cell accuracyCell = row.createCell(5);
+        accuracyCell.setCellValue(accuracy);
+        accuracyCell.setCellStyle(numberStyle);
+    }
+
+    @Override
+    public void endForecasts() {
+        setColumnWidths(forecastSheet, FORECAST_WIDTHS);
+    }
+
+    @Override
+    public void writeAlerts(List<InventoryItem> alerts) {
+        Sheet sheet = workbook.createSheet("Inventory Alerts");
+        createHeader(sheet, "Item", "Current Stock", "Reorder Level", "Deficit");
+
+        // Add data
+        int rowNum = 1;
+        for (InventoryItem item : alerts) {
+            Row row = sheet.createRow(rowNum++);
+            row.createCell(0).setCellValue(item.getName());
+            
+            Cell stockCell = row.createCell(1);
+            stockCell.setCellValue(item.getQuantity());
+            stockCell.setCellStyle(numberStyle);
+            
+            Cell reorderCell = row.createCell(2);
+            reorderCell.setCellValue(item.getReorderLevel());
+            reorderCell.setCellStyle(numberStyle);
+            
+            Cell deficitCell = row.createCell(3);
+            deficitCell.setCellValue(item.getReorderLevel() - item.getQuantity());
+            deficitCell.setCellStyle(numberStyle);
+        }
+
+        setColumnWidths(sheet, ALERT_WIDTHS);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        // Write to file
+        try (FileOutputStream fileOut = new FileOutputStream(file.toFile())) {
+            workbook.write(fileOut);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Removes the temp files backing the flushed rows
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void createHeader(Sheet sheet, String... headers) {
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
+    private void setColumnWidths(Sheet sheet, int[] widthsInChars) {
+        for (int i = 0; i < widthsInChars.length; i++) {
+            sheet.setColumnWidth(i, widthsInChars[i] * 256);
+        }
+    }
+
+    private CellStyle createHeaderStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        style.setFont(font);
+        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        style.setBorderBottom(BorderStyle.THIN);
+        return style;
+    }
+
+    private CellStyle createDateStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        return style;
+    }
+
+    private CellStyle createNumberStyle(Workbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        return style;
+    }
+}
@@ -0,0 +1,192 @@
+package com.inventory.service;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Next-month forecasts for many items at once. For the models that forecast from ModelState ("linear" and
+// "svm") the fitted parameters are laid out as one primitive array per field (structure of arrays), and the
+// kernel walks the month day by day with an inner loop over items. Every inner loop is then a branch-free
+// pass over contiguous doubles, which C2 can unroll and vectorise, and there are no per-day map lookups,
+// dates or boxed values. Trained ForecastModels predict their own days and share the rounding and
+// confidence band; days their history already covers are actual sales and get no band. Results are computed into three day-major arrays; each item's result copies its own
+// days out of them, so a cached result does not keep the whole batch alive.
+final class ForecastBatch {
+    private final int items;
+    private final int days;
+    private final String model;
+    private final double[] accuracy;
+    // [(day - 1) * items + item]
+    private final double[] forecast;
+    private final double[] lowerBound;
+    private final double[] upperBound;
+
+    private ForecastBatch(int items, int days, String model, double[] accuracy) {
+        this.items = items;
+        this.days = days;
+        this.model = model;
+        this.accuracy = accuracy;
+        this.forecast = new double[items * days];
+        this.lowerBound = new double[items * days];
+        this.upperBound = new double[items * days];
+    }
+
+    // Forecasts every day of month's calendar month for each state, in the order given
+    static ForecastBatch compute(List<ModelState> states, String model, LocalDate month) {
+        int n = states.size();
+        int days = month.lengthOfMonth();
+        long firstEpochDay = month.withDayOfMonth(1).toEpochDay();
+
+        // Pack the parameters; seasonal factors are stored per day (or weekday) across all items
+        double[] mean = new double[n];
+        double[] intercept = new double[n];
+        double[] slope = new double[n];
+        double[] count = new double[n];
+        double[] confidence = new double[n];
+        double[] accuracy = new double[n];
+        double[][] dayOfMonth = new double[days + 1][n];
+        double[][] dayOfWeek = new double[8][n];
+        boolean svm = "svm".equals(model);
+        for (int i = 0; i < n; i++) {
+            ModelState state = states.get(i);
+            SeriesStats stats = state.stats;
+            mean[i] = stats.mean();
+            intercept[i] = stats.intercept();
+            slope[i] = stats.slope();
+            count[i] = stats.count();
+            confidence[i] = 1.96 * Math.sqrt(stats.variance());
+            accuracy[i] = state.accuracy;
+            for (int day = 1; day <= days; day++) {
+                double factor = stats.dayOfMonthFactor(day);
+                dayOfMonth[day][i] = svm ? Math.pow(factor, 1.2) : factor;
+            }
+            for (int weekday = 1; weekday <= 7; weekday++) {
+                double factor = stats.dayOfWeekFactor(weekday);
+                dayOfWeek[weekday][i] = svm ? Math.pow(factor, 1.2) : factor;
+            }
+        }
+
+        ForecastBatch batch = new ForecastBatch(n, days, model, accuracy);
+        double[] predicted = new double[n];
+        for (int day = 1; day <= days; day++) {
+            double[] monthFactor = dayOfMonth[day];
+            double[] weekFactor = dayOfWeek[SalesSeries.dayOfWeek(firstEpochDay + day - 1)];
+            double dayIndex = day;
+
+            // The model is chosen once per day, not per item and day
+            if (svm) {
+                // Simulated SVM - seasonality with stronger effect; factors were raised to 1.2 when packed
+                for (int i = 0; i < n; i++) {
+                    predicted[i] = mean[i] * monthFactor[i] * weekFactor[i];
+                }
+            } else {
+                // Linear model - trend line, 30% of it adjusted by seasonality
+                for (int i = 0; i < n; i++) {
+                    double trend = intercept[i] + slope[i] * (count[i] + dayIndex);
+                    predicted[i] = trend * 0.7 + (trend * monthFactor[i] * weekFactor[i]) * 0.3;
+                }
+            }
+            batch.bound(day, predicted, confidence);
+        }
+        return batch;
+    }
+
+    // Forecasts every day of month's calendar month from each trained model, in the order given
+    static ForecastBatch predict(List<ForecastModel.Fitted> models, String model, LocalDate month) {
+        int n = models.size();
+        int days = month.lengthOfMonth();
+        long firstEpochDay = month.withDayOfMonth(1).toEpochDay();
+
+        double[][] predictions = new double[n][];
+        double[] confidence = new double[n];
+        long[] lastEpochDay = new long[n];
+        double[] accuracy = new double[n];
+        for (int i = 0; i < n; i++) {
+            ForecastModel.Fitted fitted = models.get(i);
+            predictions[i] = fitted.predict(firstEpochDay, days);
+            confidence[i] = 1.96 * fitted.getResidualStdDev();
+            lastEpochDay[i] = fitted.getLastEpochDay();
+            accuracy[i] = fitted.getAccuracy();
+        }
+
+        ForecastBatch batch = new ForecastBatch(n, days, model, accuracy);
+        double[] predicted = new double[n];
+        double[] band = new double[n];
+        for (int day = 1; day <= days; day++) {
+            long epochDay = firstEpochDay + day - 1;
+            for (int i = 0; i < n; i++) {
+                predicted[i] = predictions[i][day - 1];
+                band[i] = epochDay <= lastEpochDay[i] ? 0 : confidence[i];
+            }
+            batch.bound(day, predicted, band);
+        }
+        return batch;
+    }
+
+    // Stores one day's rounded forecasts and their 95% confidence band
+    private void bound(int day, double[] predicted, double[] confidence) {
+        int offset = (day - 1) * items;
+        for (int i = 0; i < items; i++) {
+            double p = predicted[i];
+            double c = confidence[i];
+            forecast[offset + i] = Math.max(0, roundToTenth(p));
+            lowerBound[offset + i] = roundToTenth(Math.max(0, p - c));
+            upperBound[offset + i] = roundToTenth(p + c);
+        }
+    }
+
+    // Math.round(x * 10) / 10.0 written with floor, which C2 can vectorise
+    private static double roundToTenth(double x) {
+        return Math.floor(x * 10 + 0.5) / 10.0;
+    }
+
+    int size() {
+        return items;
+    }
+
+    // The forecastNextMonth result map for the item at index
+    Map<String, Object> result(int index) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("forecast", column(forecast, index));
+        result.put("lowerBound", column(lowerBound, index));
+        result.put("upperBound", column(upperBound, index));
+        result.put("accuracy", accuracy[index]);
+        result.put("modelType", model);
+        return Collections.unmodifiableMap(result);
+    }
+
+    // One item's values, read with a stride of items out of a day-major array
+    private Column column(double[] values, int item) {
+        double[] copy = new double[days];
+        for (int day = 0; day < days; day++) {
+            copy[day] = values[day * items + item];
+        }
+        return new Column(copy);
+    }
+
+    // A read-only list over one item's own days
+    private static final class Column extends AbstractList<Double> implements RandomAccess {
+        private final double[] values;
+
+        Column(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Double get(int day) {
+            if (day < 0 || day >= values.length) {
+                throw new IndexOutOfBoundsException("Day " + day + " of " + values.length);
+            }
+            return values[day];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.inventory.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Bounded LRU cache of forecast results with a time-to-live. Entries are keyed by item, model and the
+// item's data version, so a forecast computed before the data changed can never be served.
+public class ForecastCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ForecastCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    public synchronized Map<String, Object> get(int itemId, String modelType, long dataVersion) {
+        Key key = new Key(itemId, modelType, dataVersion);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt > ttlNanos) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(int itemId, String modelType, long dataVersion, Map<String, Object> value) {
+        entries.put(new Key(itemId, modelType, dataVersion), new Entry(value, System.nanoTime()));
+        // Least recently used entries sit at the head
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // Drops every cached forecast for the item, whatever model or version produced it
+    public synchronized void invalidate(int itemId) {
+        entries.keySet().removeIf(key -> key.itemId == itemId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    private static final class Key {
+        final int itemId;
+        final String modelType;
+        final long dataVersion;
+
+        Key(int itemId, String modelType, long dataVersion) {
+            this.itemId = itemId;
+            this.modelType = modelType;
+            this.dataVersion = dataVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return itemId == other.itemId && dataVersion == other.dataVersion && modelType.equals(other.modelType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(itemId, modelType, dataVersion);
+        }
+    }
+
+    private static final class Entry {
+        final Map<String, Object> value;
+        final long createdAt;
+
+        Entry(Map<String, Object> value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getSize() { return size; }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d size=%d hitRate=%.1f%%",
+                    hits, misses, evictions, size, getHitRate() * 100);
+        }
+    }
+}
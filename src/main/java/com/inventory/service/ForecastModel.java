@@ -0,0 +1,39 @@
+package com.inventory.service;
+
+// A forecasting method trained on one item's sales. Training and prediction are separate phases: fit does
+// the expensive work once and returns an immutable Fitted model, which ForecastService keeps per item and
+// data version and asks for new forecasts without retraining. fit must be deterministic for a given seed.
+//
+// The "linear" and "svm" models are not ForecastModels: they forecast straight from the incrementally
+// updated statistics in ModelState (see ForecastBatch) and have nothing to train.
+public interface ForecastModel {
+
+    // The name passed to ForecastService.setModel, in lower case
+    String getName();
+
+    // epochDays and quantities are date ordered, at most one entry per day, and hold at least one entry
+    Fitted fit(int[] epochDays, int[] quantities, long seed);
+
+    interface Fitted {
+        // Quantities for the days firstEpochDay, firstEpochDay + 1, ... Days up to the last one the model
+        // was trained on (sales already dated into the month) are not forecast but hold the quantity sold
+        double[] predict(long firstEpochDay, int days);
+
+        // The last day of the training data
+        long getLastEpochDay();
+
+        // Standard deviation of the model's errors on its training data, for the 95% confidence band
+        double getResidualStdDev();
+
+        // Between 0 and 1, measured on data the model did not see while fitting; see accuracy below
+        double getAccuracy();
+    }
+
+    // 1 - total absolute error / total actual quantity, clamped to 0-1, the measure the forecasts report
+    static double accuracy(double absoluteError, double actualTotal) {
+        if (actualTotal <= 0) {
+            return absoluteError == 0 ? 1 : 0;
+        }
+        return Math.max(0, Math.min(1, 1.0 - absoluteError / actualTotal));
+    }
+}
@@ -3,15 +3,45 @@ package com.inventory.service;
 import com.inventory.model.SalesData;
 import com.inventory.model.ForecastResult;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class ForecastService {
     private final DatabaseService dbService;
-    private String currentModel = "linear"; // Default model
-    private Map<Integer, Map<String, Object>> forecastCache = new HashMap<>();
-    private final Map<Integer, List<SalesData>> uploadedDataByProduct = new HashMap<>();
+    private volatile String currentModel = "linear"; // Default model
+    private final ForecastCache forecastCache = new ForecastCache(10_000, 10 * 60 * 1000);
+    // Bumped whenever an item's sales change, so cached forecasts for older data are never served
+    private final Map<Integer, AtomicLong> dataVersions = new ConcurrentHashMap<>();
+    // Fitted statistics per item, updated in place as new sales arrive instead of refitting
+    private final Map<Integer, ModelState> modelStates = new ConcurrentHashMap<>();
+    private final ModelStateStore stateStore;
+    // Items whose state came from the snapshot and has not been checked against the database yet
+    private final Set<Integer> unverifiedStates = ConcurrentHashMap.newKeySet();
+    private volatile boolean statesDirty;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool forecastPool;
+    // Models that forecast from modelStates through ForecastBatch.compute
+    private static final List<String> STATE_MODELS = List.of("linear", "svm");
+    // Models that are trained per item, by name; the others forecast from modelStates
+    private final Map<String, ForecastModel> trainableModels = new ConcurrentHashMap<>();
+    // Trained models by model name and item, reused until the item's data changes
+    private final Map<String, Map<Integer, TrainedModel>> trainedModels = new ConcurrentHashMap<>();
+    private volatile long seed = 42;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    // Items per kernel run in forecastAll; large enough to amortise the packing, small enough to spread
+    // a big catalogue over the pool
+    private static final int BATCH_ITEMS = 4096;
 
     private static final Map<Month, Double> SEASONAL_FACTORS = Map.ofEntries(
         Map.entry(Month.JANUARY, 0.9),    // Post-holiday slowdown
@@ -41,202 +71,473 @@ public class ForecastService {
     );
 
     public ForecastService(DatabaseService dbService) {
+        this(dbService, ModelStateStore.defaultStore());
+    }
+
+    // stateStore may be null to keep fitted state in memory only
+    public ForecastService(DatabaseService dbService, ModelStateStore stateStore) {
         this.dbService = dbService;
+        this.stateStore = stateStore;
+        if (stateStore != null) {
+            modelStates.putAll(stateStore.load(dbService.getDatabaseId()));
+            unverifiedStates.addAll(modelStates.keySet());
+        }
+        registerModel(new RandomForestModel());
+        registerModel(new HoltWintersModel());
+        registerCacheMetrics();
+    }
+
+    // Read from the cache's own counters; the most recently created service is the one exported
+    private void registerCacheMetrics() {
+        METRICS.registerCounter("inventory_forecast_cache_hits_total", "Forecasts served from the cache",
+                () -> forecastCache.getStats().getHits());
+        METRICS.registerCounter("inventory_forecast_cache_misses_total", "Forecast cache lookups that missed",
+                () -> forecastCache.getStats().getMisses());
+        METRICS.registerCounter("inventory_forecast_cache_evictions_total", "Forecasts evicted by size or age",
+                () -> forecastCache.getStats().getEvictions());
+        METRICS.registerGauge("inventory_forecast_cache_hit_ratio", "Share of forecast lookups served from the cache",
+                () -> forecastCache.getStats().getHitRate());
+        METRICS.registerGauge("inventory_forecast_fitted_items", "Items with fitted model state",
+                modelStates::size);
+        METRICS.registerGauge("inventory_forecast_trained_models", "Trained per-item models kept for reuse",
+                () -> trainedModels.values().stream().mapToInt(Map::size).sum());
+    }
+
+    // Makes a trained model available to setModel under its name, replacing any model of that name
+    public void registerModel(ForecastModel model) {
+        String name = model.getName().toLowerCase();
+        trainableModels.put(name, model);
+        trainedModels.remove(name);
+        forecastCache.clear();
+    }
+
+    // Seed for trained models; each item trains from this seed mixed with its ID, so the same data and
+    // seed always give the same forecasts
+    public void setSeed(long seed) {
+        this.seed = seed;
+        trainedModels.clear();
+        forecastCache.clear();
+    }
+
+    public long getSeed() {
+        return seed;
     }
 
     public void setModel(String modelType) {
-        this.currentModel = modelType.toLowerCase();
+        String name = modelType.toLowerCase();
+        if (!STATE_MODELS.contains(name) && !trainableModels.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown forecast model " + modelType + "; expected one of "
+                    + String.join(", ", getModelNames()));
+        }
+        this.currentModel = name;
     }
 
-    public Map<String, Object> forecastNextMonth(int itemId) {
-        try {
-            List<SalesData> historicalData = dbService.getSalesHistory(itemId);
-            if (historicalData.isEmpty()) {
-                return Collections.emptyMap();
+    // Every name setModel accepts
+    public Set<String> getModelNames() {
+        Set<String> names = new TreeSet<>(STATE_MODELS);
+        names.addAll(trainableModels.keySet());
+        return names;
+    }
+
+    public String getModel() {
+        return currentModel;
+    }
+
+    public ForecastCache.Stats getCacheStats() {
+        return forecastCache.getStats();
+    }
+
+    private long dataVersion(int itemId) {
+        AtomicLong version = dataVersions.get(itemId);
+        return version == null ? 0 : version.get();
+    }
+
+    private void invalidate(int itemId) {
+        dataVersions.computeIfAbsent(itemId, id -> new AtomicLong()).incrementAndGet();
+        forecastCache.invalidate(itemId);
+        for (Map<Integer, TrainedModel> byItem : trainedModels.values()) {
+            byItem.remove(itemId);
+        }
+    }
+
+    // For sales written around updateSalesData, e.g. a bulk import: forgets cached forecasts and
+    // fitted state for the items so they are refitted from the database next time
+    public void invalidateAll(Collection<Integer> itemIds) {
+        for (Integer itemId : itemIds) {
+            if (modelStates.remove(itemId) != null) {
+                statesDirty = true;
             }
+            unverifiedStates.remove(itemId);
+            invalidate(itemId);
+        }
+        snapshotModelState();
+    }
 
-            // Sort data by date
-            historicalData.sort(Comparator.comparing(SalesData::getSaleDate));
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        if (forecastPool != null) {
+            forecastPool.shutdown();
+            forecastPool = null;
+        }
+    }
 
-            // Extract seasonality and trend
-            Map<Integer, Double> dayOfMonthSeasonality = extractDayOfMonthEffect(historicalData);
-            Map<Integer, Double> dayOfWeekSeasonality = extractDayOfWeekEffect(historicalData);
-            
-            // Calculate average and trend
-            double[] trendCoefficients = calculateLinearTrend(historicalData);
-            double averageQuantity = historicalData.stream()
-                    .mapToInt(SalesData::getQuantity)
-                    .average()
-                    .orElse(0.0);
-            
-            // Generate forecast with confidence intervals
-            List<Double> forecast = new ArrayList<>();
-            List<Double> lowerBound = new ArrayList<>();
-            List<Double> upperBound = new ArrayList<>();
-            LocalDate nextMonth = LocalDate.now().plusMonths(1);
-            int daysInMonth = nextMonth.lengthOfMonth();
-
-            // Calculate standard deviation of historical data
-            double stdDev = calculateStandardDeviation(historicalData);
-
-            for (int day = 1; day <= daysInMonth; day++) {
-                LocalDate forecastDate = nextMonth.withDayOfMonth(day);
-                long dayIndex = historicalData.size() + day;
-                
-                double predictedQuantity;
-                
-                // Apply different forecast models
-                switch (currentModel) {
-                    case "forest":
-                        // Simulated Random Forest - use seasonality with more randomization
-                        predictedQuantity = averageQuantity * 
-                                dayOfMonthSeasonality.getOrDefault(day, 1.0) * 
-                                dayOfWeekSeasonality.getOrDefault(forecastDate.getDayOfWeek().getValue(), 1.0) *
-                                (0.85 + Math.random() * 0.3); // Add some randomness
-                        break;
-                    case "svm":
-                        // Simulated SVM - use seasonality with stronger trend
-                        predictedQuantity = averageQuantity * 
-                                Math.pow(dayOfMonthSeasonality.getOrDefault(day, 1.0), 1.2) * 
-                                Math.pow(dayOfWeekSeasonality.getOrDefault(forecastDate.getDayOfWeek().getValue(), 1.0), 1.2);
-                        break;
-                    default:
-                        // Linear model - use trend line
-                        predictedQuantity = trendCoefficients[0] + trendCoefficients[1] * dayIndex;
-                        // Adjust with seasonality
-                        double dayOfMonthEffect = dayOfMonthSeasonality.getOrDefault(day, 1.0);
-                        double dayOfWeekEffect = dayOfWeekSeasonality.getOrDefault(forecastDate.getDayOfWeek().getValue(), 1.0);
-                        predictedQuantity = predictedQuantity * 0.7 + (predictedQuantity * dayOfMonthEffect * dayOfWeekEffect) * 0.3;
-                }
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    public synchronized void shutdown() {
+        if (forecastPool != null) {
+            forecastPool.shutdown();
+            forecastPool = null;
+        }
+    }
 
-                // Calculate confidence intervals (95%)
-                double confidence = 1.96 * stdDev;
-                double lower = Math.max(0, predictedQuantity - confidence);
-                double upper = predictedQuantity + confidence;
+    private synchronized ForkJoinPool getForecastPool() {
+        if (forecastPool == null) {
+            forecastPool = new ForkJoinPool(parallelism);
+        }
+        return forecastPool;
+    }
 
-                forecast.add(Math.max(0, Math.round(predictedQuantity * 10) / 10.0));
-                lowerBound.add(Math.round(lower * 10) / 10.0);
-                upperBound.add(Math.round(upper * 10) / 10.0);
+    // Forecasts every item on the forecast pool. Histories of unfitted items are streamed in one query and at
+    // most a few items per worker are in flight at once, so memory stays bounded on large catalogues. The
+    // fitted items are then forecast together through ForecastBatch. A failing item maps to an empty result,
+    // like forecastNextMonth, and does not affect the others.
+    public Map<Integer, Map<String, Object>> forecastAll(Collection<Integer> itemIds) {
+        String model = currentModel;
+        Map<Integer, Map<String, Object>> forecasts = new ConcurrentHashMap<>();
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Integer itemId : itemIds) {
+            long version = dataVersion(itemId);
+            Map<String, Object> cached = forecastCache.get(itemId, model, version);
+            if (cached != null) {
+                forecasts.put(itemId, cached);
+            } else {
+                versions.put(itemId, version);
             }
+        }
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("forecast", forecast);
-            result.put("lowerBound", lowerBound);
-            result.put("upperBound", upperBound);
-            result.put("accuracy", calculateAccuracy(itemId));
-            result.put("modelType", currentModel);
+        ForecastModel trainable = trainableModels.get(model);
+        if (trainable != null) {
+            forecastTrained(model, trainable, versions, forecasts);
+        } else {
+            forecastFromStates(model, versions, forecasts);
+        }
+        snapshotModelState();
 
-            forecastCache.put(itemId, result);
-            return result;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Collections.emptyMap();
+        // Keep the caller's order; items without history have nothing to forecast
+        Map<Integer, Map<String, Object>> results = new LinkedHashMap<>();
+        for (Integer itemId : itemIds) {
+            results.put(itemId, forecasts.getOrDefault(itemId, Collections.emptyMap()));
         }
+        return results;
     }
 
-    private double[] calculateLinearTrend(List<SalesData> data) {
-        int n = data.size();
-        
-        // Simple linear regression y = a + bx
-        double sumX = 0;
-        double sumY = 0;
-        double sumXY = 0;
-        double sumX2 = 0;
-        
-        for (int i = 0; i < n; i++) {
-            double x = i;
-            double y = data.get(i).getQuantity();
-            
-            sumX += x;
-            sumY += y;
-            sumXY += x * y;
-            sumX2 += x * x;
+    private void forecastFromStates(String model, Map<Integer, Long> versions,
+                                    Map<Integer, Map<String, Object>> forecasts) {
+        verifyLoadedStates(versions.keySet());
+        // Items with fitted state go straight to the batch; only the rest need their history
+        Map<Integer, ModelState> states = new ConcurrentHashMap<>();
+        List<Integer> unfitted = new ArrayList<>();
+        for (Integer itemId : versions.keySet()) {
+            ModelState state = modelStates.get(itemId);
+            if (state == null) {
+                unfitted.add(itemId);
+            } else {
+                states.put(itemId, state);
+            }
         }
-        
-        double b = (n * sumXY - sumX * sumY) / (n * sumX2 - sumX * sumX);
-        double a = (sumY - b * sumX) / n;
-        
-        return new double[]{a, b};
+        fitStreamed(unfitted, (itemId, history) -> {
+            ModelState state = fit(itemId, history);
+            if (state != null) {
+                states.put(itemId, state);
+            }
+        });
+        forecastInBatches(new ArrayList<>(states.keySet()), versions, model, forecasts, (itemIds, month) -> {
+            List<ModelState> batch = new ArrayList<>(itemIds.size());
+            for (Integer itemId : itemIds) {
+                batch.add(states.get(itemId));
+            }
+            return ForecastBatch.compute(batch, model, month);
+        });
     }
 
-    private Map<Integer, Double> extractDayOfMonthEffect(List<SalesData> data) {
-        Map<Integer, List<Integer>> dayQuantities = new HashMap<>();
-        
-        // Group quantities by day of month
-        for (SalesData sale : data) {
-            LocalDate saleDate = sale.getSaleDate();
-            int dayOfMonth = saleDate.getDayOfMonth();
-            if (!dayQuantities.containsKey(dayOfMonth)) {
-                dayQuantities.put(dayOfMonth, new ArrayList<>());
+    // Trained models for the current data are reused; the rest are trained in parallel across items
+    private void forecastTrained(String model, ForecastModel trainable, Map<Integer, Long> versions,
+                                 Map<Integer, Map<String, Object>> forecasts) {
+        Map<Integer, ForecastModel.Fitted> fitted = new ConcurrentHashMap<>();
+        List<Integer> untrained = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+            ForecastModel.Fitted trained = trainedModel(model, entry.getKey(), entry.getValue());
+            if (trained == null) {
+                untrained.add(entry.getKey());
+            } else {
+                fitted.put(entry.getKey(), trained);
             }
-            dayQuantities.get(dayOfMonth).add(sale.getQuantity());
         }
-        
-        // Calculate average across all days
-        double overallAverage = data.stream()
-                .mapToInt(SalesData::getQuantity)
-                .average()
-                .orElse(1.0);
-                
-        // Calculate seasonality factors
-        Map<Integer, Double> seasonality = new HashMap<>();
-        for (Map.Entry<Integer, List<Integer>> entry : dayQuantities.entrySet()) {
-            double dayAverage = entry.getValue().stream()
-                    .mapToInt(Integer::intValue)
-                    .average()
-                    .orElse(overallAverage);
-            
-            seasonality.put(entry.getKey(), dayAverage / overallAverage);
+        fitStreamed(untrained, (itemId, history) -> {
+            ForecastModel.Fitted trained = train(itemId, model, trainable, versions.get(itemId), history);
+            if (trained != null) {
+                fitted.put(itemId, trained);
+            }
+        });
+        forecastInBatches(new ArrayList<>(fitted.keySet()), versions, model, forecasts, (itemIds, month) -> {
+            List<ForecastModel.Fitted> batch = new ArrayList<>(itemIds.size());
+            for (Integer itemId : itemIds) {
+                batch.add(fitted.get(itemId));
+            }
+            return ForecastBatch.predict(batch, model, month);
+        });
+    }
+
+    // Streams the items' histories in one query into fit on the forecast pool, with at most a few items per
+    // worker in flight, and returns when all are done. A failing item is logged and left out.
+    private void fitStreamed(List<Integer> itemIds, BiConsumer<Integer, List<SalesData>> fit) {
+        if (itemIds.isEmpty()) {
+            return;
         }
-        
-        return seasonality;
+        ForkJoinPool pool = getForecastPool();
+        Semaphore inFlight = new Semaphore(pool.getParallelism() * 4);
+        List<Future<?>> tasks = new ArrayList<>();
+        dbService.streamSalesHistory(itemIds, (itemId, history) -> {
+            // A cancelled caller (such as a superseded prefetch) stops handing out work
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            inFlight.acquireUninterruptibly();
+            tasks.add(pool.submit(() -> {
+                try {
+                    fit.accept(itemId, history);
+                } catch (RuntimeException e) {
+                    System.err.println("Forecast failed for item " + itemId + ": " + e);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        });
+        awaitAll(tasks);
     }
-    
-    private Map<Integer, Double> extractDayOfWeekEffect(List<SalesData> data) {
-        Map<Integer, List<Integer>> dayQuantities = new HashMap<>();
-        
-        // Group quantities by day of week
-        for (SalesData sale : data) {
-            LocalDate saleDate = sale.getSaleDate();
-            int dayOfWeek = saleDate.getDayOfWeek().getValue();
-            if (!dayQuantities.containsKey(dayOfWeek)) {
-                dayQuantities.put(dayOfWeek, new ArrayList<>());
+
+    // One kernel run per slice of items, the slices spread over the pool. kernel forecasts a slice for the
+    // given month.
+    private void forecastInBatches(List<Integer> itemIds, Map<Integer, Long> versions, String model,
+                                   Map<Integer, Map<String, Object>> forecasts,
+                                   BiFunction<List<Integer>, LocalDate, ForecastBatch> kernel) {
+        ForkJoinPool pool = getForecastPool();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < itemIds.size() && !Thread.currentThread().isInterrupted(); from += BATCH_ITEMS) {
+            List<Integer> slice = itemIds.subList(from, Math.min(from + BATCH_ITEMS, itemIds.size()));
+            tasks.add(pool.submit(() -> forecastBatch(slice, versions, model, forecasts, kernel)));
+        }
+        awaitAll(tasks);
+    }
+
+    private void forecastBatch(List<Integer> itemIds, Map<Integer, Long> versions, String model,
+                               Map<Integer, Map<String, Object>> forecasts,
+                               BiFunction<List<Integer>, LocalDate, ForecastBatch> kernel) {
+        try {
+            long start = System.nanoTime();
+            ForecastBatch batch = kernel.apply(itemIds, LocalDate.now().plusMonths(1));
+            METRICS.histogram("inventory_forecast_batch_seconds", "Time to forecast a batch of items from fitted state",
+                    "model", model).observeNanos(System.nanoTime() - start);
+            METRICS.counter("inventory_forecast_batch_items_total", "Items forecast through the batch kernel",
+                    "model", model).add(itemIds.size());
+            for (int i = 0; i < itemIds.size(); i++) {
+                int itemId = itemIds.get(i);
+                Map<String, Object> result = batch.result(i);
+                forecastCache.put(itemId, model, versions.get(itemId), result);
+                forecasts.put(itemId, result);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Batch forecast failed for " + itemIds.size() + " items: " + e);
+            for (Integer itemId : itemIds) {
+                forecasts.put(itemId, Collections.emptyMap());
             }
-            dayQuantities.get(dayOfWeek).add(sale.getQuantity());
         }
-        
-        // Calculate average across all days
-        double overallAverage = data.stream()
-                .mapToInt(SalesData::getQuantity)
-                .average()
-                .orElse(1.0);
-                
-        // Calculate seasonality factors
-        Map<Integer, Double> seasonality = new HashMap<>();
-        for (Map.Entry<Integer, List<Integer>> entry : dayQuantities.entrySet()) {
-            double dayAverage = entry.getValue().stream()
-                    .mapToInt(Integer::intValue)
-                    .average()
-                    .orElse(overallAverage);
-            
-            seasonality.put(entry.getKey(), dayAverage / overallAverage);
+    }
+
+    private static void awaitAll(List<Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                // Tasks that have not started yet are dropped; running ones finish on their own
+                for (Future<?> pending : tasks) {
+                    pending.cancel(false);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Already handled inside the task
+            }
         }
-        
-        return seasonality;
     }
 
-    private double calculateStandardDeviation(List<SalesData> data) {
-        double mean = data.stream()
-                .mapToInt(SalesData::getQuantity)
-                .average()
-                .orElse(0.0);
+    public Map<String, Object> forecastNextMonth(int itemId) {
+        String model = currentModel;
+        long version = dataVersion(itemId);
+        Map<String, Object> cached = forecastCache.get(itemId, model, version);
+        if (cached != null) {
+            return cached;
+        }
+        ForecastModel trainable = trainableModels.get(model);
+        if (trainable != null) {
+            ForecastModel.Fitted fitted = trainedModel(model, itemId, version);
+            if (fitted == null) {
+                fitted = train(itemId, model, trainable, version, dbService.getSalesHistory(itemId));
+            }
+            return cacheForecast(itemId, model, version, fitted);
+        }
+        verifyLoadedStates(Collections.singletonList(itemId));
+        ModelState state = modelStates.get(itemId);
+        if (state == null) {
+            state = fit(itemId, dbService.getSalesHistory(itemId));
+        }
+        return cacheForecast(itemId, model, version, state);
+    }
+
+    // Forecasts from history the caller already loaded, e.g. through DatabaseService.streamSalesHistory.
+    // The item is refitted from that history unless a forecast for the current data is cached; a trained
+    // model for the current data is reused.
+    public Map<String, Object> forecastNextMonth(int itemId, List<SalesData> history) {
+        String model = currentModel;
+        long version = dataVersion(itemId);
+        Map<String, Object> cached = forecastCache.get(itemId, model, version);
+        if (cached != null) {
+            return cached;
+        }
+        ForecastModel trainable = trainableModels.get(model);
+        if (trainable != null) {
+            ForecastModel.Fitted fitted = trainedModel(model, itemId, version);
+            if (fitted == null) {
+                fitted = train(itemId, model, trainable, version, history);
+            }
+            return cacheForecast(itemId, model, version, fitted);
+        }
+        return cacheForecast(itemId, model, version, fit(itemId, history));
+    }
+
+    // Full fit over the item's history; the result replaces any state kept for the item
+    private ModelState fit(int itemId, List<SalesData> history) {
+        if (history.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+
+        // Date-ordered primitive arrays, built once for all of the calculations below
+        SalesSeries series = SalesSeries.of(history);
+
+        // Single pass over the history; the training prefix for the accuracy check is kept on the way
+        int trainSize = accuracyTrainSize(series.size);
+        SeriesStats training = new SeriesStats();
+        training.addAll(series, 0, trainSize);
+        SeriesStats stats = training.copy();
+        stats.addAll(series, trainSize, series.size);
+
+        ModelState state = new ModelState(stats, SalesFingerprint.of(history), calculateAccuracy(series, training));
+        modelStates.put(itemId, state);
+        unverifiedStates.remove(itemId);
+        statesDirty = true;
+        METRICS.histogram("inventory_forecast_fit_seconds", "Time to fit an item's history", "model", currentModel)
+                .observeNanos(System.nanoTime() - start);
+        return state;
+    }
+
+    // A state loaded from the snapshot was fitted by an earlier run, and the sales may have changed since
+    // through another process or a restored database. The first time such a state is needed its fingerprint
+    // is compared with the item's rows, one grouped query for all of them, and a mismatch drops the state so
+    // the item is refitted. States fitted or updated by this service are kept in step and not checked.
+    private void verifyLoadedStates(Collection<Integer> itemIds) {
+        if (unverifiedStates.isEmpty()) {
+            return;
+        }
+        List<Integer> toCheck = new ArrayList<>();
+        for (Integer itemId : itemIds) {
+            if (unverifiedStates.contains(itemId)) {
+                toCheck.add(itemId);
+            }
+        }
+        if (toCheck.isEmpty()) {
+            return;
+        }
+        Map<Integer, SalesFingerprint> current = dbService.getSalesFingerprints(toCheck);
+        for (Integer itemId : toCheck) {
+            ModelState state = modelStates.get(itemId);
+            if (state != null && !state.fingerprint.equals(current.get(itemId)) && modelStates.remove(itemId, state)) {
+                statesDirty = true;
+            }
+            unverifiedStates.remove(itemId);
+        }
+    }
+
+    // The item's trained model if it was trained on the current data
+    private ForecastModel.Fitted trainedModel(String model, int itemId, long version) {
+        Map<Integer, TrainedModel> byItem = trainedModels.get(model);
+        TrainedModel trained = byItem == null ? null : byItem.get(itemId);
+        return trained != null && trained.version == version ? trained.fitted : null;
+    }
+
+    // Trains the model on the item's history and keeps it for the data version it was read at. Outside the
+    // forecast pool the training runs on it, so a model that forks work (the forest's trees) uses its workers.
+    private ForecastModel.Fitted train(int itemId, String model, ForecastModel trainable, long version,
+                                       List<SalesData> history) {
+        if (history.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        SalesSeries series = SalesSeries.of(history);
+        long itemSeed = seed ^ (itemId * 0x9E3779B97F4A7C15L);
+        ForecastModel.Fitted fitted = ForkJoinTask.inForkJoinPool()
+                ? trainable.fit(series.epochDays, series.quantities, itemSeed)
+                : getForecastPool().submit(() -> trainable.fit(series.epochDays, series.quantities, itemSeed)).join();
+        trainedModels.computeIfAbsent(model, k -> new ConcurrentHashMap<>())
+                .put(itemId, new TrainedModel(fitted, version));
+        METRICS.histogram("inventory_forecast_fit_seconds", "Time to fit an item's history",
+                "model", model).observeNanos(System.nanoTime() - start);
+        return fitted;
+    }
+
+    private Map<String, Object> cacheForecast(int itemId, String model, long version, ModelState state) {
+        if (state == null) {
+            return Collections.emptyMap();
+        }
+        return cacheForecast(itemId, model, version,
+                month -> ForecastBatch.compute(Collections.singletonList(state), model, month));
+    }
+
+    private Map<String, Object> cacheForecast(int itemId, String model, long version, ForecastModel.Fitted fitted) {
+        if (fitted == null) {
+            return Collections.emptyMap();
+        }
+        return cacheForecast(itemId, model, version,
+                month -> ForecastBatch.predict(Collections.singletonList(fitted), model, month));
+    }
 
-        double variance = data.stream()
-                .mapToDouble(sale -> Math.pow(sale.getQuantity() - mean, 2))
-                .average()
-                .orElse(0.0);
+    // Runs a batch of one for next month and caches the result
+    private Map<String, Object> cacheForecast(int itemId, String model, long version,
+                                              Function<LocalDate, ForecastBatch> kernel) {
+        long start = System.nanoTime();
+        Map<String, Object> result;
+        try {
+            result = kernel.apply(LocalDate.now().plusMonths(1)).result(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            result = Collections.emptyMap();
+        }
+        METRICS.histogram("inventory_forecast_predict_seconds", "Time to forecast the next month from fitted state",
+                "model", model).observeNanos(System.nanoTime() - start);
+        if (!result.isEmpty()) {
+            forecastCache.put(itemId, model, version, result);
+        }
+        return result;
+    }
 
-        return Math.sqrt(variance);
+    // Simple linear regression y = a + bx, with x the position in the series
+    private double[] calculateLinearTrend(SeriesStats stats) {
+        return new double[]{stats.intercept(), stats.slope()};
     }
 
     private double calculateHolidayAdjustment(LocalDate date) {
@@ -247,26 +548,19 @@ public class ForecastService {
         return 1.0;
     }
 
-    private double calculateTrendFactor(List<SalesData> sales, int monthsAhead) {
-        if (sales.size() < 2) return 1.0;
+    private double calculateTrendFactor(SeriesStats stats, int monthsAhead) {
+        if (stats.count() < 2) return 1.0;
         
         // Calculate month-over-month growth rate
-        double[] monthlyTotals = new double[12];
-        int[] monthlyCounts = new int[12];
-        
-        for (SalesData sale : sales) {
-            int month = sale.getSaleDate().getMonthValue() - 1;
-            monthlyTotals[month] += sale.getQuantity();
-            monthlyCounts[month]++;
-        }
+        double[] monthlyAverages = stats.monthlyAverages();
         
         // Calculate average monthly growth
         double totalGrowth = 0;
         int growthCount = 0;
-        for (int i = 1; i < 12; i++) {
-            if (monthlyCounts[i] > 0 && monthlyCounts[i-1] > 0) {
-                double avg1 = monthlyTotals[i-1] / monthlyCounts[i-1];
-                double avg2 = monthlyTotals[i] / monthlyCounts[i];
+        for (int month = 2; month <= 12; month++) {
+            if (monthlyAverages[month] >= 0 && monthlyAverages[month - 1] >= 0) {
+                double avg1 = monthlyAverages[month - 1];
+                double avg2 = monthlyAverages[month];
                 if (avg1 > 0) {
                     totalGrowth += (avg2 - avg1) / avg1;
                     growthCount++;
@@ -279,15 +573,25 @@ public class ForecastService {
     }
 
     public List<ForecastResult> getForecastResults(int itemId) {
-        List<SalesData> sales = uploadedDataByProduct.getOrDefault(itemId, dbService.getSalesHistory(itemId));
+        return getForecastResults(itemId, dbService.getSalesHistory(itemId));
+    }
+
+    // Monthly results from history the caller already loaded, so one refresh reads the item only once
+    public List<ForecastResult> getForecastResults(int itemId, List<SalesData> sales) {
         if (sales.isEmpty()) return Collections.emptyList();
         
         // Calculate base values
-        double baseQty = sales.stream().mapToInt(SalesData::getQuantity).average().orElse(0);
-        double basePrice = sales.stream()
-                .mapToDouble(sale -> sale.getRevenue() / sale.getQuantity())
-                .average()
-                .orElse(0.0); // Average price per unit
+        SalesSeries series = SalesSeries.of(sales);
+        SeriesStats stats = new SeriesStats();
+        stats.addAll(series, 0, series.size);
+        double baseQty = stats.mean();
+        double totalUnitPrice = 0;
+        for (int i = 0; i < series.size; i++) {
+            totalUnitPrice += series.revenues[i] / series.quantities[i];
+        }
+        double basePrice = totalUnitPrice / series.size; // Average price per unit
+        // The forecast is the mean scaled by the factors below, so its residuals are the spread around the mean
+        double confidence = 1.96 * Math.sqrt(stats.variance());
         String productName = sales.get(0).getItemName();
         
         List<ForecastResult> results = new ArrayList<>();
@@ -303,15 +607,11 @@ public class ForecastService {
             double holidayFactor = calculateHolidayAdjustment(forecastMonth);
             
             // Apply trend factor
-            double trendFactor = calculateTrendFactor(sales, i);
+            double trendFactor = calculateTrendFactor(stats, i);
             
             // Calculate final forecast with all factors
             double forecastQty = baseQty * seasonalFactor * holidayFactor * trendFactor;
             
-            // Add some random variation (±10%)
-            double randomFactor = 0.9 + (Math.random() * 0.2);
-            forecastQty *= randomFactor;
-            
             // Round to nearest integer
             int roundedQty = (int) Math.round(forecastQty);
             
@@ -323,41 +623,53 @@ public class ForecastService {
             // Calculate total revenue for this forecast
             double totalRevenue = roundedQty * adjustedPrice;
             
-            results.add(new ForecastResult(forecastMonth, roundedQty, totalRevenue, productName));
+            results.add(new ForecastResult(forecastMonth, roundedQty, Math.max(0, Math.round(forecastQty - confidence)),
+                    Math.round(forecastQty + confidence), totalRevenue, productName));
         }
         
         return results;
     }
 
     public double calculateAccuracy(int itemId) {
+        return calculateAccuracy(dbService.getSalesHistory(itemId));
+    }
+
+    public double calculateAccuracy(List<SalesData> history) {
+        SalesSeries series = SalesSeries.of(history);
+        SeriesStats training = new SeriesStats();
+        training.addAll(series, 0, accuracyTrainSize(series.size));
+        return calculateAccuracy(series, training);
+    }
+
+    // Accuracy is measured on the last 20% of data after training on the rest
+    private int accuracyTrainSize(int size) {
+        if (size < 10) return 0;
+        return size - Math.max(1, size / 5);
+    }
+
+    // training holds the statistics of the first accuracyTrainSize(series.size) points
+    private double calculateAccuracy(SalesSeries series, SeriesStats training) {
         try {
-            List<SalesData> historicalData = dbService.getSalesHistory(itemId);
-            if (historicalData.size() < 10) return 0.7; // Default reasonable accuracy for small datasets
+            if (series.size < 10) return 0.7; // Default reasonable accuracy for small datasets
             
-            // Calculate accuracy based on the last 20% of data
-            int testSize = Math.max(1, historicalData.size() / 5);
-            int trainSize = historicalData.size() - testSize;
-            
-            List<SalesData> trainingData = historicalData.subList(0, trainSize);
-            List<SalesData> testingData = historicalData.subList(trainSize, historicalData.size());
+            int trainSize = (int) training.count();
             
             // Calculate trend from training data
-            double[] trend = calculateLinearTrend(trainingData);
+            double[] trend = calculateLinearTrend(training);
             
             // Measure accuracy on test data
             double totalError = 0;
             double totalQuantity = 0;
             
-            for (int i = 0; i < testingData.size(); i++) {
-                SalesData actual = testingData.get(i);
-                int dayIndex = trainSize + i;
+            for (int dayIndex = trainSize; dayIndex < series.size; dayIndex++) {
+                int actual = series.quantities[dayIndex];
                 
                 // Predict using linear trend
                 double predicted = trend[0] + trend[1] * dayIndex;
                 
                 // Add error
-                totalError += Math.abs(predicted - actual.getQuantity());
-                totalQuantity += actual.getQuantity();
+                totalError += Math.abs(predicted - actual);
+                totalQuantity += actual;
             }
             
             // Calculate accuracy as 1 - (normalized error)
@@ -372,19 +684,78 @@ public class ForecastService {
         }
     }
 
-    public void updateSalesData(int itemId, List<SalesData> newData) {
-        dbService.updateSalesHistory(itemId, newData);
-        forecastCache.remove(itemId);
-        uploadedDataByProduct.put(itemId, newData);
+    // Merges the upload into the stored history rather than rewriting it
+    public MergeResult updateSalesData(int itemId, List<SalesData> newData) {
+        // Only a state that matched the rows before the merge can have the upload folded in
+        verifyLoadedStates(Collections.singletonList(itemId));
+        MergeResult result = dbService.mergeSalesHistory(itemId, newData);
+        foldIntoModel(itemId, newData, result);
+        invalidate(itemId);
+        return result;
+    }
+
+    // When the upload only added days after the fitted history, those rows are folded into the item's
+    // state in O(1) each. Corrections or backfilled days drop the state so the next forecast refits.
+    private void foldIntoModel(int itemId, List<SalesData> newData, MergeResult result) {
+        ModelState state = modelStates.get(itemId);
+        if (state == null) {
+            return;
+        }
+
+        // Same last-row-wins rule per date as the merge
+        TreeMap<LocalDate, SalesData> appended = new TreeMap<>();
+        for (SalesData sale : newData) {
+            if (sale.getSaleDate().toEpochDay() > state.lastEpochDay) {
+                appended.put(sale.getSaleDate(), sale);
+            }
+        }
+
+        if (result.getUpdated() == 0 && result.getInserted() == appended.size()) {
+            modelStates.put(itemId, state.withAppended(new ArrayList<>(appended.values())));
+        } else {
+            modelStates.remove(itemId);
+        }
+        statesDirty = true;
     }
 
-    public void trainModel(List<SalesData> data) {
+    // Writes fitted state to the store if anything changed since the last snapshot
+    public void snapshotModelState() {
+        if (stateStore == null || !statesDirty) {
+            return;
+        }
+        synchronized (stateStore) {
+            statesDirty = false;
+            try {
+                stateStore.save(dbService.getDatabaseId(), new HashMap<>(modelStates));
+            } catch (IOException e) {
+                statesDirty = true;
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Uploaded rows go through the same merge as streamed ingestion, so the database stays the only copy
+    public MergeResult trainModel(List<SalesData> data) {
         Map<Integer, List<SalesData>> grouped = new HashMap<>();
         for (SalesData sd : data) {
             grouped.computeIfAbsent(sd.getItemId(), k -> new ArrayList<>()).add(sd);
         }
-        uploadedDataByProduct.clear();
-        uploadedDataByProduct.putAll(grouped);
+        MergeResult total = MergeResult.EMPTY;
+        for (Map.Entry<Integer, List<SalesData>> entry : grouped.entrySet()) {
+            total = total.plus(updateSalesData(entry.getKey(), entry.getValue()));
+        }
         System.out.println("Training model with " + data.size() + " data points.");
+        snapshotModelState();
+        return total;
+    }
+
+    private static final class TrainedModel {
+        final ForecastModel.Fitted fitted;
+        final long version;
+
+        TrainedModel(ForecastModel.Fitted fitted, long version) {
+            this.fitted = fitted;
+            this.version = version;
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
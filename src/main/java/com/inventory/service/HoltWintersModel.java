@@ -0,0 +1,160 @@
+package com.inventory.service;
+
+// Additive Holt-Winters exponential smoothing of the item's daily quantities: a level, a damped trend and a
+// weekly season. The smoothing parameters are picked by grid search on the one-step-ahead squared error,
+// which is a few dozen O(n) passes, so fitting is cheap and deterministic; the seed is not used.
+final class HoltWintersModel implements ForecastModel {
+    static final String NAME = "holtwinters";
+
+    private static final int PERIOD = 7;
+    // Damping keeps a month-ahead forecast from following a short-lived trend too far
+    private static final double PHI = 0.98;
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5};
+    private static final double[] BETAS = {0.01, 0.05, 0.1};
+    private static final double[] GAMMAS = {0.05, 0.1, 0.2, 0.4};
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ForecastModel.Fitted fit(int[] epochDays, int[] quantities, long seed) {
+        double[] y = SalesSeries.daily(epochDays, quantities);
+        int first = epochDays[0];
+
+        // Too short to estimate a season: forecast the mean with the sample spread
+        if (y.length < 2 * PERIOD) {
+            double mean = 0;
+            for (double v : y) mean += v;
+            mean /= y.length;
+            double sq = 0;
+            for (double v : y) sq += (v - mean) * (v - mean);
+            return new Fitted(mean, 0, new double[PERIOD], epochDays, quantities, Math.sqrt(sq / y.length), 0.7);
+        }
+
+        double bestError = Double.POSITIVE_INFINITY;
+        double[] best = null;
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                for (double gamma : GAMMAS) {
+                    double error = smooth(y, first, alpha, beta, gamma, null);
+                    if (error < bestError) {
+                        bestError = error;
+                        best = new double[]{alpha, beta, gamma};
+                    }
+                }
+            }
+        }
+
+        double[] state = new double[PERIOD + 3];
+        smooth(y, first, best[0], best[1], best[2], state);
+        double[] season = new double[PERIOD];
+        System.arraycopy(state, 3, season, 0, PERIOD);
+        return new Fitted(state[0], state[1], season, epochDays, quantities,
+                Math.sqrt(bestError / (y.length - PERIOD)), state[2]);
+    }
+
+    // One pass over y; returns the squared one-step error after the first season. When state is given it
+    // receives level, trend, accuracy over the last 20% of days, then the season by epochDay % 7.
+    private static double smooth(double[] y, int firstEpochDay, double alpha, double beta, double gamma,
+                                 double[] state) {
+        // Start from the first two weeks: their mean level, the change between them, and the first week's
+        // deviations from its mean
+        double firstWeek = 0;
+        double secondWeek = 0;
+        for (int t = 0; t < PERIOD; t++) {
+            firstWeek += y[t];
+            secondWeek += y[t + PERIOD];
+        }
+        firstWeek /= PERIOD;
+        secondWeek /= PERIOD;
+        double level = firstWeek;
+        double trend = (secondWeek - firstWeek) / PERIOD;
+        double[] season = new double[PERIOD];
+        for (int t = 0; t < PERIOD; t++) {
+            season[Math.floorMod(firstEpochDay + t, PERIOD)] = y[t] - firstWeek;
+        }
+
+        int holdout = y.length - Math.max(1, y.length / 5);
+        double squaredError = 0;
+        double absoluteError = 0;
+        double actual = 0;
+        for (int t = 0; t < y.length; t++) {
+            int s = Math.floorMod(firstEpochDay + t, PERIOD);
+            double error = y[t] - (level + PHI * trend + season[s]);
+            if (t >= PERIOD) {
+                squaredError += error * error;
+            }
+            if (t >= holdout) {
+                absoluteError += Math.abs(error);
+                actual += y[t];
+            }
+            double previous = level;
+            level = alpha * (y[t] - season[s]) + (1 - alpha) * (level + PHI * trend);
+            trend = beta * (level - previous) + (1 - beta) * PHI * trend;
+            season[s] = gamma * (y[t] - level) + (1 - gamma) * season[s];
+        }
+
+        if (state != null) {
+            state[0] = level;
+            state[1] = trend;
+            state[2] = ForecastModel.accuracy(absoluteError, actual);
+            System.arraycopy(season, 0, state, 3, PERIOD);
+        }
+        return squaredError;
+    }
+
+    private static final class Fitted implements ForecastModel.Fitted {
+        private final double level;
+        private final double trend;
+        private final double[] season; // by epochDay % 7
+        // The training rows, for days a forecast asks for that they already cover
+        private final int[] epochDays;
+        private final int[] quantities;
+        private final long lastEpochDay;
+        private final double residualStdDev;
+        private final double accuracy;
+
+        Fitted(double level, double trend, double[] season, int[] epochDays, int[] quantities,
+               double residualStdDev, double accuracy) {
+            this.level = level;
+            this.trend = trend;
+            this.season = season;
+            this.epochDays = epochDays;
+            this.quantities = quantities;
+            this.lastEpochDay = epochDays[epochDays.length - 1];
+            this.residualStdDev = residualStdDev;
+            this.accuracy = accuracy;
+        }
+
+        @Override
+        public double[] predict(long firstEpochDay, int days) {
+            double[] forecast = new double[days];
+            SalesSeries.sold(epochDays, quantities, firstEpochDay, forecast);
+            for (int d = (int) Math.max(0, lastEpochDay + 1 - firstEpochDay); d < days; d++) {
+                long epochDay = firstEpochDay + d;
+                long h = epochDay - lastEpochDay;
+                // Damped trend: phi + phi^2 + ... + phi^h steps of it
+                double damped = PHI * (1 - Math.pow(PHI, h)) / (1 - PHI);
+                forecast[d] = level + damped * trend + season[(int) Math.floorMod(epochDay, (long) PERIOD)];
+            }
+            return forecast;
+        }
+
+        @Override
+        public long getLastEpochDay() {
+            return lastEpochDay;
+        }
+
+        @Override
+        public double getResidualStdDev() {
+            return residualStdDev;
+        }
+
+        @Override
+        public double getAccuracy() {
+            return accuracy;
+        }
+    }
+}
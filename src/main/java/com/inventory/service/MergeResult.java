@@ -0,0 +1,29 @@
+package com.inventory.service;
+
+// Outcome of merging uploaded sales into sales_history
+public final class MergeResult {
+    public static final MergeResult EMPTY = new MergeResult(0, 0, 0);
+
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+
+    public MergeResult(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getUnchanged() { return unchanged; }
+
+    public MergeResult plus(MergeResult other) {
+        return new MergeResult(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged);
+    }
+
+    @Override
+    public String toString() {
+        return inserted + " inserted, " + updated + " updated, " + unchanged + " unchanged";
+    }
+}
@@ -0,0 +1,122 @@
+package com.inventory.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Publishes a MetricsRegistry as a Prometheus scrape endpoint on localhost (GET /metrics) and/or as a text
+// dump rewritten every few seconds and once more on close. Both are opt-in through system properties:
+//
+//   -Dinventory.metrics.port=9404 -Dinventory.metrics.file=metrics.prom
+public class MetricsExporter implements AutoCloseable {
+    public static final String PORT_PROPERTY = "inventory.metrics.port";
+    public static final String FILE_PROPERTY = "inventory.metrics.file";
+    private static final long DUMP_INTERVAL_MILLIS = 10_000;
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final Path dumpFile;
+    private final ScheduledExecutorService scheduler;
+
+    // port < 0 disables the endpoint (0 picks a free port); dumpFile may be null
+    public MetricsExporter(MetricsRegistry registry, int port, Path dumpFile, long dumpIntervalMillis) throws IOException {
+        this.registry = registry;
+        this.dumpFile = dumpFile;
+
+        if (port >= 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                try {
+                    if (!"GET".equals(exchange.getRequestMethod())) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } finally {
+                    exchange.close();
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "metrics-http");
+                t.setDaemon(true);
+                return t;
+            }));
+            server.start();
+        } else {
+            server = null;
+        }
+
+        if (dumpFile != null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::dumpQuietly, dumpIntervalMillis, dumpIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    // Exports the default registry as configured by inventory.metrics.port and inventory.metrics.file;
+    // returns null when neither is set
+    public static MetricsExporter fromSystemProperties() throws IOException {
+        String port = System.getProperty(PORT_PROPERTY);
+        String file = System.getProperty(FILE_PROPERTY);
+        if (port == null && file == null) {
+            return null;
+        }
+        MetricsExporter exporter = new MetricsExporter(MetricsRegistry.getDefault(),
+                port == null ? -1 : Integer.parseInt(port.trim()),
+                file == null ? null : Paths.get(file), DUMP_INTERVAL_MILLIS);
+        if (exporter.server != null) {
+            System.err.println("Metrics at http://127.0.0.1:" + exporter.getPort() + "/metrics");
+        }
+        return exporter;
+    }
+
+    public int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    public void dump() throws IOException {
+        if (dumpFile != null) {
+            registry.dump(dumpFile);
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + dumpFile + ": " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        dumpQuietly();
+        if (server != null) {
+            // The dispatcher thread is not a daemon, so the server must be stopped for the JVM to exit
+            server.stop(0);
+        }
+    }
+}
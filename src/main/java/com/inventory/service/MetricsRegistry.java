@@ -0,0 +1,327 @@
+package com.inventory.service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+// In-process counters, gauges and latency histograms for the service layer. Recording is lock-free
+// (LongAdder), so the hot paths only pay for a map lookup and an add. The registry renders itself in the
+// Prometheus text format for MetricsExporter and as display rows for the dashboard's metrics window.
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // Upper bounds in seconds, from sub-millisecond cache hits to multi-second reports
+    private static final double[] LATENCY_BUCKETS = {
+        0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    // Families sorted by name, each holding its series sorted by label string
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    // The registry the services record into
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series.computeIfAbsent(labels(labels), k -> new Counter());
+    }
+
+    public Gauge gauge(String name, String help, String... labels) {
+        return (Gauge) family(name, help, Type.GAUGE).series.computeIfAbsent(labels(labels), k -> new Gauge());
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) family(name, help, Type.HISTOGRAM).series.computeIfAbsent(labels(labels),
+                k -> new Histogram(LATENCY_BUCKETS));
+    }
+
+    // Counter read from elsewhere, e.g. a cache's own hit count. Registering the same series again replaces it.
+    public void registerCounter(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).series.put(labels(labels), new Function(value));
+    }
+
+    // Gauge read from elsewhere, e.g. pool occupancy. Registering the same series again replaces it.
+    public void registerGauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series.put(labels(labels), new Function(value));
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    // Label pairs as name, value, name, value... rendered once as name="value",...
+    private static String labels(String[] pairs) {
+        if (pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    sb.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(ch);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    // Prometheus text exposition format, version 0.0.4
+    public void writePrometheus(Writer out) throws IOException {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.write("# HELP " + name + " " + family.help.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+            out.write("# TYPE " + name + " " + family.type.name().toLowerCase(Locale.ROOT) + "\n");
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                String labels = series.getKey();
+                Object metric = series.getValue();
+                if (metric instanceof Histogram) {
+                    ((Histogram) metric).write(out, name, labels);
+                } else {
+                    out.write(name + braces(labels) + " " + number(value(metric)) + "\n");
+                }
+            }
+        }
+    }
+
+    public String scrape() {
+        StringWriter out = new StringWriter();
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // Replaces the file in one move, so readers never see a half-written dump
+    public void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // One line per series for display; histograms are summarised as count, mean and p95
+    public List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            Family family = entry.getValue();
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                Object metric = series.getValue();
+                String text;
+                if (metric instanceof Histogram) {
+                    Histogram h = (Histogram) metric;
+                    text = String.format("n=%,d  mean=%.2f ms  p95=%.2f ms  max<=%s",
+                            h.getCount(), h.getMeanSeconds() * 1000, h.getQuantileSeconds(0.95) * 1000,
+                            h.getMaxBucketLabel());
+                } else {
+                    double value = value(metric);
+                    text = value == Math.rint(value) && Math.abs(value) < 1e15
+                            ? String.format("%,d", (long) value) : String.format("%,.3f", value);
+                }
+                rows.add(new Row(entry.getKey(), series.getKey().replace("\"", ""), family.help, text));
+            }
+        }
+        return rows;
+    }
+
+    private static double value(Object metric) {
+        if (metric instanceof Counter) return ((Counter) metric).get();
+        if (metric instanceof Gauge) return ((Gauge) metric).get();
+        return ((Function) metric).supplier.getAsDouble();
+    }
+
+    private static String braces(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private static final class Family {
+        final String help;
+        final Type type;
+        final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        Family(String help, Type type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class Function {
+        final DoubleSupplier supplier;
+
+        Function(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+    }
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    public static final class Gauge {
+        private volatile double value;
+
+        public void set(double value) {
+            this.value = value;
+        }
+
+        public double get() {
+            return value;
+        }
+    }
+
+    public static final class Histogram {
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] bounds) {
+            this.bounds = bounds;
+            // One more bucket for values above the last bound
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / 1e9);
+        }
+
+        public void observe(double seconds) {
+            int i = 0;
+            while (i < bounds.length && seconds > bounds[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            sum.add(seconds);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getSumSeconds() {
+            return sum.sum();
+        }
+
+        public double getMeanSeconds() {
+            long n = count.sum();
+            return n == 0 ? 0 : sum.sum() / n;
+        }
+
+        // Interpolated within the bucket holding the quantile; values past the last bound report that bound
+        public double getQuantileSeconds(double q) {
+            long n = count.sum();
+            if (n == 0) return 0;
+            double rank = q * n;
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                long inBucket = buckets[i].sum();
+                if (inBucket > 0 && seen + inBucket >= rank) {
+                    if (i == bounds.length) return bounds[bounds.length - 1];
+                    double lower = i == 0 ? 0 : bounds[i - 1];
+                    return lower + (bounds[i] - lower) * (rank - seen) / inBucket;
+                }
+                seen += inBucket;
+            }
+            return bounds[bounds.length - 1];
+        }
+
+        String getMaxBucketLabel() {
+            for (int i = buckets.length - 1; i >= 0; i--) {
+                if (buckets[i].sum() > 0) {
+                    return i == bounds.length ? "+Inf" : number(bounds[i] * 1000) + " ms";
+                }
+            }
+            return "-";
+        }
+
+        void write(Writer out, String name, String labels) throws IOException {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String le = i == bounds.length ? "+Inf"
+                        : BigDecimal.valueOf(bounds[i]).stripTrailingZeros().toPlainString();
+                out.write(name + "_bucket{" + prefix + "le=\"" + le + "\"} " + cumulative + "\n");
+            }
+            out.write(name + "_sum" + braces(labels) + " " + number(sum.sum()) + "\n");
+            out.write(name + "_count" + braces(labels) + " " + cumulative + "\n");
+        }
+    }
+
+    public static final class Row {
+        private final String name;
+        private final String labels;
+        private final String help;
+        private final String value;
+
+        Row(String name, String labels, String help, String value) {
+            this.name = name;
+            this.labels = labels;
+            this.help = help;
+            this.value = value;
+        }
+
+        public String getName() { return name; }
+        public String getLabels() { return labels; }
+        public String getHelp() { return help; }
+        public String getValue() { return value; }
+    }
+}
@@ -0,0 +1,46 @@
+package com.inventory.service;
+
+import com.inventory.model.SalesData;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Fitted state for one item: the sufficient statistics of its whole history, the fingerprint of the rows
+// folded in (which includes the date of the latest sale), and the accuracy measured at the last full fit. Instances are immutable, so forecasts can
+// read a state while an upload produces the next one.
+final class ModelState {
+    final SeriesStats stats;
+    final SalesFingerprint fingerprint;
+    final long lastEpochDay;
+    final double accuracy;
+
+    ModelState(SeriesStats stats, SalesFingerprint fingerprint, double accuracy) {
+        this.stats = stats;
+        this.fingerprint = fingerprint;
+        this.lastEpochDay = fingerprint.lastEpochDay;
+        this.accuracy = accuracy;
+    }
+
+    // Folds sales dated after lastEpochDay into a copy of this state, O(1) per row. rows must be in
+    // date order with at most one row per date.
+    ModelState withAppended(List<SalesData> rows) {
+        if (rows.isEmpty()) {
+            return this;
+        }
+        SeriesStats next = stats.copy();
+        long last = lastEpochDay;
+        long quantity = 0;
+        for (SalesData sale : rows) {
+            LocalDate date = sale.getSaleDate();
+            long epochDay = date.toEpochDay();
+            if (epochDay <= last) {
+                throw new IllegalArgumentException("Sale on " + date + " is not after the fitted history");
+            }
+            next.add(next.count(), sale.getQuantity(), date.getDayOfMonth(),
+                    SalesSeries.dayOfWeek(epochDay), date.getMonthValue());
+            last = epochDay;
+            quantity += sale.getQuantity();
+        }
+        return new ModelState(next, fingerprint.plus(rows.size(), last, quantity), accuracy);
+    }
+}
@@ -0,0 +1,84 @@
+package com.inventory.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Snapshots per-item model state to a local file so fitted models survive restarts. The snapshot names the
+// database it was fitted against and keeps each item's sales fingerprint, so ForecastService can tell
+// whether a saved state still describes the rows it will forecast from.
+public class ModelStateStore {
+    private static final int MAGIC = 0x494D5331; // "IMS1"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+
+    public ModelStateStore(Path file) {
+        this.file = file;
+    }
+
+    public static ModelStateStore defaultStore() {
+        return new ModelStateStore(Paths.get(System.getProperty("user.home"), ".inventory-forecast", "model-state.bin"));
+    }
+
+    // States saved against databaseId; a snapshot of another database loads as empty
+    Map<Integer, ModelState> load(String databaseId) {
+        Map<Integer, ModelState> states = new HashMap<>();
+        if (!Files.exists(file)) {
+            return states;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                System.err.println("Ignoring model state in unknown format: " + file);
+                return states;
+            }
+            String savedId = in.readUTF();
+            if (!savedId.equals(databaseId)) {
+                System.err.println("Ignoring model state fitted against another database: " + savedId);
+                return states;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int itemId = in.readInt();
+                SalesFingerprint fingerprint = new SalesFingerprint(in.readLong(), in.readLong(), in.readLong());
+                double accuracy = in.readDouble();
+                states.put(itemId, new ModelState(SeriesStats.readFrom(in), fingerprint, accuracy));
+            }
+        } catch (IOException e) {
+            // A damaged snapshot only costs a refit
+            e.printStackTrace();
+            states.clear();
+        }
+        return states;
+    }
+
+    void save(String databaseId, Map<Integer, ModelState> states) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(databaseId);
+            out.writeInt(states.size());
+            for (Map.Entry<Integer, ModelState> entry : states.entrySet()) {
+                ModelState state = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeLong(state.fingerprint.rows);
+                out.writeLong(state.fingerprint.lastEpochDay);
+                out.writeLong(state.fingerprint.quantityTotal);
+                out.writeDouble(state.accuracy);
+                state.stats.writeTo(out);
+            }
+        }
+        // Readers never see a half-written snapshot
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
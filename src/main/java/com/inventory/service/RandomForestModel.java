@@ -0,0 +1,369 @@
+package com.inventory.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+
+// Random forest regression of the item's daily quantity on lag and calendar features. Each tree is grown on
+// a bootstrap sample with a random subset of the features tried at every split. The trees are grown in
+// parallel as fork/join tasks, in the pool of the calling thread when there is one, each from its own
+// random stream split off the seed in tree order, so the forest does not depend on how trees are scheduled.
+// Features are binned once into at most MAX_BINS quantile bins, which makes finding a split one histogram
+// pass over the node's rows instead of a sort. Forecasts are recursive: each predicted day becomes a lag of
+// the next one.
+final class RandomForestModel implements ForecastModel {
+    static final String NAME = "forest";
+
+    private static final int TREES = 30;
+    private static final int MAX_DEPTH = 8;
+    private static final int MIN_LEAF = 8;
+    private static final int MAX_BINS = 32;
+    private static final int FEATURES_PER_SPLIT = 3;
+
+    // Quantity 1, 7, 14 and 28 days back, the means of the last 7 and 28 days, day of week, day of month
+    // and month
+    private static final int[] LAGS = {1, 7, 14, 28};
+    private static final int FEATURES = LAGS.length + 5;
+    private static final int LOOKBACK = 28;
+    // Below this many training rows the lags say little; Holt-Winters copes with shorter histories
+    private static final int MIN_ROWS = 4 * MIN_LEAF;
+
+    private final HoltWintersModel shortHistoryModel = new HoltWintersModel();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ForecastModel.Fitted fit(int[] epochDays, int[] quantities, long seed) {
+        double[] daily = SalesSeries.daily(epochDays, quantities);
+        int rows = daily.length - LOOKBACK;
+        if (rows < MIN_ROWS) {
+            return shortHistoryModel.fit(epochDays, quantities, seed);
+        }
+        long firstEpochDay = epochDays[0];
+
+        // One training row per day that has a full lookback, stored column by column
+        double[][] x = new double[FEATURES][rows];
+        double[] y = new double[rows];
+        double[] row = new double[FEATURES];
+        for (int r = 0; r < rows; r++) {
+            int t = r + LOOKBACK;
+            features(daily, t, firstEpochDay + t, row);
+            for (int f = 0; f < FEATURES; f++) {
+                x[f][r] = row[f];
+            }
+            y[r] = daily[t];
+        }
+        TrainingSet data = new TrainingSet(x, y);
+
+        List<ForkJoinTask<Tree>> tasks = new ArrayList<>(TREES);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < TREES; i++) {
+            SplittableRandom random = seeds.split();
+            tasks.add(ForkJoinTask.adapt(() -> new Tree(data, random)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // Out-of-bag estimate: each row is predicted only by the trees that did not train on it
+        double[] oobSums = new double[rows];
+        int[] oobCounts = new int[rows];
+        int nodes = 0;
+        for (ForkJoinTask<Tree> task : tasks) {
+            Tree tree = task.join();
+            nodes += tree.size;
+            for (int r = 0; r < rows; r++) {
+                if (!tree.inBag[r]) {
+                    for (int f = 0; f < FEATURES; f++) {
+                        row[f] = x[f][r];
+                    }
+                    oobSums[r] += tree.predict(row);
+                    oobCounts[r]++;
+                }
+            }
+        }
+        double squaredError = 0;
+        double absoluteError = 0;
+        double actual = 0;
+        int scored = 0;
+        for (int r = 0; r < rows; r++) {
+            if (oobCounts[r] > 0) {
+                double error = y[r] - oobSums[r] / oobCounts[r];
+                squaredError += error * error;
+                absoluteError += Math.abs(error);
+                actual += y[r];
+                scored++;
+            }
+        }
+
+        // The trees end to end in preorder: a split's left child follows it, its right child is stored
+        byte[] feature = new byte[nodes];
+        double[] value = new double[nodes];
+        int[] right = new int[nodes];
+        int[] roots = new int[TREES];
+        int offset = 0;
+        for (int t = 0; t < TREES; t++) {
+            Tree tree = tasks.get(t).join();
+            roots[t] = offset;
+            System.arraycopy(tree.feature, 0, feature, offset, tree.size);
+            System.arraycopy(tree.value, 0, value, offset, tree.size);
+            for (int n = 0; n < tree.size; n++) {
+                right[offset + n] = tree.right[n] + offset;
+            }
+            offset += tree.size;
+        }
+
+        double[] tail = Arrays.copyOfRange(daily, daily.length - LOOKBACK, daily.length);
+        return new Fitted(feature, value, right, roots, tail, epochDays, quantities,
+                scored == 0 ? 0 : Math.sqrt(squaredError / scored),
+                scored == 0 ? 0.7 : ForecastModel.accuracy(absoluteError, actual));
+    }
+
+    // Features of day t of daily, from the values before it
+    private static void features(double[] daily, int t, long epochDay, double[] row) {
+        for (int i = 0; i < LAGS.length; i++) {
+            row[i] = daily[t - LAGS[i]];
+        }
+        double week = 0;
+        double month = 0;
+        for (int back = 1; back <= LOOKBACK; back++) {
+            month += daily[t - back];
+            if (back <= 7) {
+                week += daily[t - back];
+            }
+        }
+        row[LAGS.length] = week / 7;
+        row[LAGS.length + 1] = month / LOOKBACK;
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        row[LAGS.length + 2] = SalesSeries.dayOfWeek(epochDay);
+        row[LAGS.length + 3] = date.getDayOfMonth();
+        row[LAGS.length + 4] = date.getMonthValue();
+    }
+
+    // Training rows with every feature also mapped to its quantile bin
+    private static final class TrainingSet {
+        final int rows;
+        final double[] y;
+        final byte[][] bins;
+        // Upper edge of each bin; a value is in the first bin whose edge is not below it
+        final double[][] edges;
+
+        TrainingSet(double[][] x, double[] y) {
+            this.rows = y.length;
+            this.y = y;
+            this.bins = new byte[FEATURES][rows];
+            this.edges = new double[FEATURES][];
+            for (int f = 0; f < FEATURES; f++) {
+                double[] sorted = x[f].clone();
+                Arrays.sort(sorted);
+                double[] featureEdges = new double[MAX_BINS];
+                int count = 0;
+                for (int b = 1; b <= MAX_BINS; b++) {
+                    double edge = sorted[(int) ((long) b * rows / MAX_BINS) - 1];
+                    if (count == 0 || edge > featureEdges[count - 1]) {
+                        featureEdges[count++] = edge;
+                    }
+                }
+                edges[f] = Arrays.copyOf(featureEdges, count);
+                for (int r = 0; r < rows; r++) {
+                    int bin = Arrays.binarySearch(edges[f], x[f][r]);
+                    bins[f][r] = (byte) (bin >= 0 ? bin : -bin - 1);
+                }
+            }
+        }
+    }
+
+    // One regression tree, grown depth first. Nodes are in preorder; a leaf has feature -1 and its
+    // prediction in value, a split sends values <= value to the left child.
+    private static final class Tree {
+        final boolean[] inBag;
+        byte[] feature = new byte[64];
+        double[] value = new double[64];
+        int[] right = new int[64];
+        int size;
+
+        private final TrainingSet data;
+        private final SplittableRandom random;
+        private final int[] rows;
+        private final int[] featureOrder = new int[FEATURES];
+        private final double[] binSums = new double[MAX_BINS];
+        private final int[] binCounts = new int[MAX_BINS];
+
+        Tree(TrainingSet data, SplittableRandom random) {
+            this.data = data;
+            this.random = random;
+            this.inBag = new boolean[data.rows];
+            this.rows = new int[data.rows];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = random.nextInt(data.rows);
+                inBag[rows[i]] = true;
+            }
+            for (int f = 0; f < FEATURES; f++) {
+                featureOrder[f] = f;
+            }
+            grow(0, rows.length, 0);
+        }
+
+        private void grow(int from, int to, int depth) {
+            int node = addNode();
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += data.y[rows[i]];
+            }
+            int count = to - from;
+            feature[node] = -1;
+            value[node] = sum / count;
+            if (depth == MAX_DEPTH || count < 2 * MIN_LEAF) {
+                return;
+            }
+
+            // Best split of a few random features by reduction in squared error, which for a split into
+            // left and right is maximising leftSum^2 / leftCount + rightSum^2 / rightCount
+            double bestScore = sum * sum / count + 1e-9;
+            int bestFeature = -1;
+            int bestBin = -1;
+            for (int k = 0; k < FEATURES_PER_SPLIT; k++) {
+                int pick = k + random.nextInt(FEATURES - k);
+                int f = featureOrder[pick];
+                featureOrder[pick] = featureOrder[k];
+                featureOrder[k] = f;
+
+                int binCount = data.edges[f].length;
+                Arrays.fill(binSums, 0, binCount, 0);
+                Arrays.fill(binCounts, 0, binCount, 0);
+                byte[] featureBins = data.bins[f];
+                for (int i = from; i < to; i++) {
+                    int r = rows[i];
+                    binSums[featureBins[r]] += data.y[r];
+                    binCounts[featureBins[r]]++;
+                }
+                double leftSum = 0;
+                int leftCount = 0;
+                for (int b = 0; b < binCount - 1; b++) {
+                    leftSum += binSums[b];
+                    leftCount += binCounts[b];
+                    int rightCount = count - leftCount;
+                    if (leftCount < MIN_LEAF) continue;
+                    if (rightCount < MIN_LEAF) break;
+                    double rightSum = sum - leftSum;
+                    double score = leftSum * leftSum / leftCount + rightSum * rightSum / rightCount;
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestFeature = f;
+                        bestBin = b;
+                    }
+                }
+            }
+            if (bestFeature < 0) {
+                return;
+            }
+
+            // Partition the node's rows in place, left bins first
+            byte[] featureBins = data.bins[bestFeature];
+            int split = from;
+            for (int i = from; i < to; i++) {
+                if (featureBins[rows[i]] <= bestBin) {
+                    int r = rows[i];
+                    rows[i] = rows[split];
+                    rows[split++] = r;
+                }
+            }
+            feature[node] = (byte) bestFeature;
+            value[node] = data.edges[bestFeature][bestBin];
+            grow(from, split, depth + 1);
+            right[node] = size;
+            grow(split, to, depth + 1);
+        }
+
+        private int addNode() {
+            if (size == feature.length) {
+                feature = Arrays.copyOf(feature, size * 2);
+                value = Arrays.copyOf(value, size * 2);
+                right = Arrays.copyOf(right, size * 2);
+            }
+            return size++;
+        }
+
+        double predict(double[] row) {
+            return RandomForestModel.predict(feature, value, right, 0, row);
+        }
+    }
+
+    private static double predict(byte[] feature, double[] value, int[] right, int node, double[] row) {
+        while (feature[node] >= 0) {
+            node = row[feature[node]] <= value[node] ? node + 1 : right[node];
+        }
+        return value[node];
+    }
+
+    // The trees' nodes in three flat arrays (a few KB per tree), the last LOOKBACK days for the lags and the
+    // training rows, for days a forecast asks for that they already cover
+    private static final class Fitted implements ForecastModel.Fitted {
+        private final byte[] feature;
+        private final double[] value;
+        private final int[] right;
+        private final int[] roots;
+        private final double[] tail;
+        private final int[] epochDays;
+        private final int[] quantities;
+        private final long lastEpochDay;
+        private final double residualStdDev;
+        private final double accuracy;
+
+        Fitted(byte[] feature, double[] value, int[] right, int[] roots, double[] tail, int[] epochDays,
+               int[] quantities, double residualStdDev, double accuracy) {
+            this.feature = feature;
+            this.value = value;
+            this.right = right;
+            this.roots = roots;
+            this.tail = tail;
+            this.epochDays = epochDays;
+            this.quantities = quantities;
+            this.lastEpochDay = epochDays[epochDays.length - 1];
+            this.residualStdDev = residualStdDev;
+            this.accuracy = accuracy;
+        }
+
+        @Override
+        public double[] predict(long firstEpochDay, int days) {
+            double[] forecast = new double[days];
+            SalesSeries.sold(epochDays, quantities, firstEpochDay, forecast);
+            // Walk forward from the end of the history to the last day asked for, feeding each prediction back
+            // in as a lag
+            int ahead = (int) Math.max(0, firstEpochDay + days - 1 - lastEpochDay);
+            double[] daily = Arrays.copyOf(tail, LOOKBACK + ahead);
+            double[] row = new double[FEATURES];
+            for (int t = LOOKBACK; t < daily.length; t++) {
+                features(daily, t, lastEpochDay + 1 + t - LOOKBACK, row);
+                double sum = 0;
+                for (int root : roots) {
+                    sum += RandomForestModel.predict(feature, value, right, root, row);
+                }
+                daily[t] = sum / TREES;
+            }
+            for (int d = (int) Math.max(0, lastEpochDay + 1 - firstEpochDay); d < days; d++) {
+                forecast[d] = daily[(int) (LOOKBACK + firstEpochDay + d - lastEpochDay - 1)];
+            }
+            return forecast;
+        }
+
+        @Override
+        public long getLastEpochDay() {
+            return lastEpochDay;
+        }
+
+        @Override
+        public double getResidualStdDev() {
+            return residualStdDev;
+        }
+
+        @Override
+        public double getAccuracy() {
+            return accuracy;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.inventory.service;
+
+import java.util.Locale;
+
+public enum ReportFormat {
+    EXCEL("xlsx", "Excel Files"),
+    CSV("csv", "CSV Files"),
+    COLUMNAR("icol", "Columnar Files");
+
+    private final String extension;
+    private final String description;
+
+    ReportFormat(String extension, String description) {
+        this.extension = extension;
+        this.description = description;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Picks the format from a file name's extension, defaulting to Excel
+    public static ReportFormat forFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (ReportFormat format : values()) {
+            if (lower.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return EXCEL;
+    }
+
+    // Accepts the enum name or the extension, in any case
+    public static ReportFormat parse(String value) {
+        String upper = value.trim().toUpperCase(Locale.ROOT);
+        for (ReportFormat format : values()) {
+            if (format.name().equals(upper) || format.extension.equalsIgnoreCase(upper)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown report format: " + value);
+    }
+}
@@ -1,208 +1,269 @@
 package com.inventory.service;
 
 import com.inventory.model.InventoryItem;
-import com.inventory.model.SalesData;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class ReportService {
+    // Wall-clock time per stage of the last report, in milliseconds
+    public static final class Timings {
+        private long loadNanos;
+        private long forecastNanos;
+        private long writeNanos;
+        private long waitNanos;
+        private long saveNanos;
+        private long totalNanos;
+
+        public double getLoadMillis() { return loadNanos / 1e6; }
+        // Time the forecast producer spent computing, overlapped with writing
+        public double getForecastMillis() { return forecastNanos / 1e6; }
+        // Time spent creating rows, not counting waits for forecasts
+        public double getWriteMillis() { return writeNanos / 1e6; }
+        // Time the writer sat idle waiting for the next forecasts
+        public double getWaitMillis() { return waitNanos / 1e6; }
+        public double getSaveMillis() { return saveNanos / 1e6; }
+        public double getTotalMillis() { return totalNanos / 1e6; }
+
+        @Override
+        public String toString() {
+            return String.format("load=%.0fms forecast=%.0fms write=%.0fms (waited %.0fms) save=%.0fms total=%.0fms",
+                    getLoadMillis(), getForecastMillis(), getWriteMillis(), getWaitMillis(), getSaveMillis(),
+                    getTotalMillis());
+        }
+    }
+
+    // Slices of forecasts the producer may run ahead of the writer
+    private static final int PIPELINE_DEPTH = 4;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+
     private final DatabaseService dbService;
     private final ForecastService forecastService;
+    // Rows kept in memory per Excel sheet; older rows are flushed to a temp file
+    private int rowWindow = 500;
+    // Items forecast per round; only PIPELINE_DEPTH slices of forecasts are held at a time
+    private int forecastSliceSize = 250;
 
     public ReportService(DatabaseService dbService, ForecastService forecastService) {
         this.dbService = dbService;
         this.forecastService = forecastService;
     }
 
-    public void generateReport(String filePath) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            // Create styles
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            CellStyle dateStyle = createDateStyle(workbook);
-            CellStyle numberStyle = createNumberStyle(workbook);
+    public void setRowWindow(int rowWindow) {
+        if (rowWindow < 1) {
+            throw new IllegalArgumentException("Row window must be positive: " + rowWindow);
+        }
+        this.rowWindow = rowWindow;
+    }
+
+    public void setForecastSliceSize(int forecastSliceSize) {
+        if (forecastSliceSize < 1) {
+            throw new IllegalArgumentException("Slice size must be positive: " + forecastSliceSize);
+        }
+        this.forecastSliceSize = forecastSliceSize;
+    }
+
+    // Writes the report in the format implied by the file extension (.xlsx, .csv or .icol)
+    public Timings generateReport(String filePath) {
+        return generateReport(filePath, ReportFormat.forFileName(filePath));
+    }
 
-            // Inventory Sheet
-            createInventorySheet(workbook, headerStyle, numberStyle);
+    // Forecasts are computed on a producer thread while this thread writes, so the export takes about
+    // as long as the slower of the two. Returns the stage timings, or null if the report could not be written.
+    public Timings generateReport(String filePath, ReportFormat format) {
+        long start = System.nanoTime();
+        Timings timings = new Timings();
+        ForecastProducer producer = null;
+        try (ReportWriter writer = createWriter(Paths.get(filePath), format)) {
+            // Load inventory once; the alerts are derived from it rather than queried again
+            List<InventoryItem> items = dbService.getAllInventoryItems();
+            List<InventoryItem> alerts = new ArrayList<>();
+            for (InventoryItem item : items) {
+                if (item.getQuantity() <= item.getReorderLevel()) {
+                    alerts.add(item);
+                }
+            }
+            timings.loadNanos = System.nanoTime() - start;
 
-            // Sales Forecast Sheet
-            createForecastSheet(workbook, headerStyle, dateStyle, numberStyle);
+            producer = new ForecastProducer(items);
+            producer.start();
 
-            // Alerts Sheet
-            createAlertsSheet(workbook, headerStyle, numberStyle);
+            long writeStart = System.nanoTime();
+            writer.writeInventory(items);
+            long forecastStart = System.nanoTime();
+            recordSection(format, "inventory", forecastStart - writeStart, items.size());
+            long forecastRows = writeForecasts(writer, producer, timings);
+            long alertsStart = System.nanoTime();
+            // Time spent waiting for the producer is not writing
+            recordSection(format, "forecasts", alertsStart - forecastStart - timings.waitNanos, forecastRows);
+            writer.writeAlerts(alerts);
+            recordSection(format, "alerts", System.nanoTime() - alertsStart, alerts.size());
+            timings.writeNanos = System.nanoTime() - writeStart - timings.waitNanos;
+            timings.forecastNanos = producer.busyNanos;
 
             // Write to file
-            try (FileOutputStream fileOut = new FileOutputStream(filePath)) {
-                workbook.write(fileOut);
-            }
+            long saveStart = System.nanoTime();
+            writer.finish();
+            timings.saveNanos = System.nanoTime() - saveStart;
+            timings.totalNanos = System.nanoTime() - start;
+            recordSection(format, "save", timings.saveNanos, -1);
+            METRICS.histogram("inventory_report_seconds", "Total report generation time", "format", format.name())
+                    .observeNanos(timings.totalNanos);
+            METRICS.histogram("inventory_report_forecast_wait_seconds", "Time the writer waited for forecasts",
+                    "format", format.name()).observeNanos(timings.waitNanos);
+            System.out.println("Report " + filePath + " (" + format + "): " + timings);
+            return timings;
         } catch (Exception e) {
             e.printStackTrace();
+            return null;
+        } finally {
+            if (producer != null) {
+                producer.abandon();
+            }
         }
     }
 
-    private void createInventorySheet(Workbook workbook, CellStyle headerStyle, CellStyle numberStyle) {
-        Sheet sheet = workbook.createSheet("Inventory");
-        List<InventoryItem> items = dbService.getAllInventoryItems();
-
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"ID", "Name", "Quantity", "Price", "Reorder Level", "Category"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // Add data
-        int rowNum = 1;
-        for (InventoryItem item : items) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(item.getId());
-            row.createCell(1).setCellValue(item.getName());
-            
-            Cell quantityCell = row.createCell(2);
-            quantityCell.setCellValue(item.getQuantity());
-            quantityCell.setCellStyle(numberStyle);
-            
-            Cell priceCell = row.createCell(3);
-            priceCell.setCellValue(item.getPrice());
-            priceCell.setCellStyle(numberStyle);
-            
-            Cell reorderCell = row.createCell(4);
-            reorderCell.setCellValue(item.getReorderLevel());
-            reorderCell.setCellStyle(numberStyle);
-            
-            row.createCell(5).setCellValue(item.getCategory());
-        }
-
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    // Write time per section, with rows written and the section's rows per second when rows >= 0
+    private static void recordSection(ReportFormat format, String section, long nanos, long rows) {
+        METRICS.histogram("inventory_report_section_seconds", "Time to write one report section",
+                "format", format.name(), "section", section).observeNanos(nanos);
+        if (rows < 0) return;
+        METRICS.counter("inventory_report_rows_total", "Rows written to reports",
+                "format", format.name(), "section", section).add(rows);
+        METRICS.gauge("inventory_report_rows_per_second", "Write rate of the last report's section",
+                "format", format.name(), "section", section).set(nanos > 0 ? rows * 1e9 / nanos : 0);
     }
 
-    private void createForecastSheet(Workbook workbook, CellStyle headerStyle, CellStyle dateStyle, CellStyle numberStyle) {
-        Sheet sheet = workbook.createSheet("Sales Forecast");
-        List<InventoryItem> items = dbService.getAllInventoryItems();
-
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Item", "Date", "Forecast", "Lower Bound", "Upper Bound", "Accuracy"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+    private ReportWriter createWriter(Path file, ReportFormat format) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvReportWriter(file);
+            case COLUMNAR:
+                return new ColumnarReportWriter(file);
+            default:
+                return new ExcelReportWriter(file, rowWindow);
         }
+    }
 
-        // Add data
-        int rowNum = 1;
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Returns the number of forecast rows written
+    private long writeForecasts(ReportWriter writer, ForecastProducer producer, Timings timings)
+            throws IOException, InterruptedException {
+        long rows = 0;
+        writer.beginForecasts();
         LocalDate nextMonth = LocalDate.now().plusMonths(1);
 
-        for (InventoryItem item : items) {
-            Map<String, Object> forecastData = forecastService.forecastNextMonth(item.getId());
-            if (forecastData.isEmpty()) continue;
-
-            List<Double> forecast = (List<Double>) forecastData.get("forecast");
-            List<Double> lowerBound = (List<Double>) forecastData.get("lowerBound");
-            List<Double> upperBound = (List<Double>) forecastData.get("upperBound");
-            double accuracy = (double) forecastData.get("accuracy");
-
-            for (int i = 0; i < forecast.size(); i++) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(item.getName());
-                
-                Cell dateCell = row.createCell(1);
-                dateCell.setCellValue(nextMonth.withDayOfMonth(i + 1).format(formatter));
-                dateCell.setCellStyle(dateStyle);
-                
-                Cell forecastCell = row.createCell(2);
-                forecastCell.setCellValue(forecast.get(i));
-                forecastCell.setCellStyle(numberStyle);
-                
-                Cell lowerCell = row.createCell(3);
-                lowerCell.setCellValue(lowerBound.get(i));
-                lowerCell.setCellStyle(numberStyle);
-                
-                Cell upperCell = row.createCell(4);
-                upperCell.setCellValue(upperBound.get(i));
-                upperCell.setCellStyle(numberStyle);
-                
-                Cell accuracyCell = row.createCell(5);
-                accuracyCell.setCellValue(accuracy);
-                accuracyCell.setCellStyle(numberStyle);
+        // Slices arrive in item order as the producer finishes them
+        while (true) {
+            long waitStart = System.nanoTime();
+            ForecastSlice slice = producer.next();
+            timings.waitNanos += System.nanoTime() - waitStart;
+            if (slice == ForecastSlice.END) break;
+
+            for (InventoryItem item : slice.items) {
+                Map<String, Object> forecastData = slice.forecasts.get(item.getId());
+                if (forecastData.isEmpty()) continue;
+
+                List<Double> forecast = (List<Double>) forecastData.get("forecast");
+                List<Double> lowerBound = (List<Double>) forecastData.get("lowerBound");
+                List<Double> upperBound = (List<Double>) forecastData.get("upperBound");
+                double accuracy = (double) forecastData.get("accuracy");
+
+                for (int i = 0; i < forecast.size(); i++) {
+                    writer.writeForecast(item.getName(), nextMonth.withDayOfMonth(i + 1), forecast.get(i),
+                            lowerBound.get(i), upperBound.get(i), accuracy);
+                }
+                rows += forecast.size();
             }
         }
+        writer.endForecasts();
+        return rows;
+    }
+
+    private static final class ForecastSlice {
+        static final ForecastSlice END = new ForecastSlice(null, null);
+
+        final List<InventoryItem> items;
+        final Map<Integer, Map<String, Object>> forecasts;
 
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+        ForecastSlice(List<InventoryItem> items, Map<Integer, Map<String, Object>> forecasts) {
+            this.items = items;
+            this.forecasts = forecasts;
         }
     }
 
-    private void createAlertsSheet(Workbook workbook, CellStyle headerStyle, CellStyle numberStyle) {
-        Sheet sheet = workbook.createSheet("Inventory Alerts");
-        List<InventoryItem> alerts = dbService.getLowStockItems();
-
-        // Create header
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {"Item", "Current Stock", "Reorder Level", "Deficit"};
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+    // Forecasts the items slice by slice on its own thread (each slice fans out over the forecast pool)
+    // and hands finished slices to the writer through a bounded queue, so it never runs far ahead
+    private final class ForecastProducer implements Runnable {
+        private final List<InventoryItem> items;
+        private final BlockingQueue<ForecastSlice> queue = new ArrayBlockingQueue<>(PIPELINE_DEPTH);
+        private volatile boolean abandoned;
+        private volatile RuntimeException failure;
+        volatile long busyNanos;
+
+        ForecastProducer(List<InventoryItem> items) {
+            this.items = items;
         }
 
-        // Add data
-        int rowNum = 1;
-        for (InventoryItem item : alerts) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(item.getName());
-            
-            Cell stockCell = row.createCell(1);
-            stockCell.setCellValue(item.getQuantity());
-            stockCell.setCellStyle(numberStyle);
-            
-            Cell reorderCell = row.createCell(2);
-            reorderCell.setCellValue(item.getReorderLevel());
-            reorderCell.setCellStyle(numberStyle);
-            
-            Cell deficitCell = row.createCell(3);
-            deficitCell.setCellValue(item.getReorderLevel() - item.getQuantity());
-            deficitCell.setCellStyle(numberStyle);
+        void start() {
+            Thread thread = new Thread(this, "report-forecast");
+            thread.setDaemon(true);
+            thread.start();
         }
 
-        // Auto-size columns
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+        @Override
+        public void run() {
+            try {
+                for (int from = 0; from < items.size() && !abandoned; from += forecastSliceSize) {
+                    long start = System.nanoTime();
+                    List<InventoryItem> slice = items.subList(from, Math.min(from + forecastSliceSize, items.size()));
+                    List<Integer> itemIds = new ArrayList<>();
+                    for (InventoryItem item : slice) {
+                        itemIds.add(item.getId());
+                    }
+                    // Histories come from one streamed query per slice
+                    Map<Integer, Map<String, Object>> forecasts = forecastService.forecastAll(itemIds);
+                    busyNanos += System.nanoTime() - start;
+                    offer(new ForecastSlice(slice, forecasts));
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                offer(ForecastSlice.END);
+            } catch (InterruptedException e) {
+                // Writer is gone
+            }
         }
-    }
 
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        style.setBorderBottom(BorderStyle.THIN);
-        return style;
-    }
+        // Blocks while the queue is full, but gives up once the writer has stopped reading
+        private void offer(ForecastSlice slice) throws InterruptedException {
+            while (!abandoned) {
+                if (queue.offer(slice, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        }
 
-    private CellStyle createDateStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
-        return style;
-    }
+        ForecastSlice next() throws InterruptedException {
+            ForecastSlice slice = queue.take();
+            if (slice == ForecastSlice.END && failure != null) {
+                throw failure;
+            }
+            return slice;
+        }
 
-    private CellStyle createNumberStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
-        return style;
+        void abandon() {
+            abandoned = true;
+        }
     }
-} 
\ No newline at end of file
+}
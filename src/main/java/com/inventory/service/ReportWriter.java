@@ -0,0 +1,26 @@
+package com.inventory.service;
+
+import com.inventory.model.InventoryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Output side of ReportService. Datasets arrive in order: inventory, forecasts row by row, alerts;
+// finish() completes the file and close() releases resources whether or not finish() ran.
+public interface ReportWriter extends Closeable {
+
+    void writeInventory(List<InventoryItem> items) throws IOException;
+
+    void beginForecasts() throws IOException;
+
+    void writeForecast(String itemName, LocalDate date, double forecast, double lowerBound, double upperBound,
+                       double accuracy) throws IOException;
+
+    void endForecasts() throws IOException;
+
+    void writeAlerts(List<InventoryItem> alerts) throws IOException;
+
+    void finish() throws IOException;
+}
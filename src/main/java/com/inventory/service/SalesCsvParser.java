@@ -0,0 +1,616 @@
+package com.inventory.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Parses the six-column sales CSV (product, date, quantity, revenue, sold, remaining) straight from a
+// memory-mapped file into primitive columns. The file is cut into chunks at line boundaries and the
+// chunks are parsed in parallel, then handed to the consumer in file order.
+// Fields may be quoted ("" escapes a quote) but may not span lines.
+public class SalesCsvParser {
+
+    public interface ChunkConsumer {
+        // Return false to stop parsing
+        boolean accept(Chunk chunk) throws InterruptedException;
+    }
+
+    public static final class ParseError {
+        private final long offset;
+        private final String message;
+
+        ParseError(long offset, String message) {
+            this.offset = offset;
+            this.message = message;
+        }
+
+        // Byte offset of the offending field from the start of the file
+        public long getOffset() { return offset; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "byte " + offset + ": " + message;
+        }
+    }
+
+    // Parsed rows of one slice of the file, stored column by column
+    public static final class Chunk {
+        private static final int MAX_ERRORS_KEPT = 100;
+
+        private final long startOffset;
+        private final long endOffset;
+        private int size;
+        private String[] products;
+        private long[] epochDays;
+        private int[] quantities;
+        private double[] revenues;
+        private int[] sold;
+        private int[] remaining;
+        private final List<ParseError> errors = new ArrayList<>();
+        private int errorCount;
+
+        Chunk(long startOffset, long endOffset, int capacity) {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            capacity = Math.max(16, capacity);
+            products = new String[capacity];
+            epochDays = new long[capacity];
+            quantities = new int[capacity];
+            revenues = new double[capacity];
+            sold = new int[capacity];
+            remaining = new int[capacity];
+        }
+
+        void add(String product, long epochDay, int quantity, double revenue, int soldValue, int remainingValue) {
+            if (size == products.length) {
+                int capacity = size * 2;
+                products = Arrays.copyOf(products, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                revenues = Arrays.copyOf(revenues, capacity);
+                sold = Arrays.copyOf(sold, capacity);
+                remaining = Arrays.copyOf(remaining, capacity);
+            }
+            products[size] = product;
+            epochDays[size] = epochDay;
+            quantities[size] = quantity;
+            revenues[size] = revenue;
+            sold[size] = soldValue;
+            remaining[size] = remainingValue;
+            size++;
+        }
+
+        void error(long offset, String message) {
+            errorCount++;
+            if (errors.size() < MAX_ERRORS_KEPT) {
+                errors.add(new ParseError(offset, message));
+            }
+        }
+
+        public long getStartOffset() { return startOffset; }
+        public long getEndOffset() { return endOffset; }
+        public int size() { return size; }
+        public String product(int i) { return products[i]; }
+        public long epochDay(int i) { return epochDays[i]; }
+        public int quantity(int i) { return quantities[i]; }
+        public double revenue(int i) { return revenues[i]; }
+        public int sold(int i) { return sold[i]; }
+        public int remaining(int i) { return remaining[i]; }
+        public int getErrorCount() { return errorCount; }
+        public List<ParseError> getErrors() { return Collections.unmodifiableList(errors); }
+    }
+
+    private static final int FIELDS = 6;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private int chunkBytes = 8 * 1024 * 1024;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public void setChunkBytes(int chunkBytes) {
+        if (chunkBytes < 1024) {
+            throw new IllegalArgumentException("Chunk size must be at least 1024 bytes");
+        }
+        this.chunkBytes = chunkBytes;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public void parse(Path file, ChunkConsumer consumer) throws IOException, InterruptedException {
+        Map<String, String> names = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "sales-csv-parser");
+            t.setDaemon(true);
+            return t;
+        });
+        // At most a couple of chunks per thread are mapped and parsed ahead of the consumer
+        int window = parallelism * 2;
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long start = 0;
+            boolean more = true;
+
+            while (more || !pending.isEmpty()) {
+                while (start < fileSize && pending.size() < window) {
+                    long end = nextLineBoundary(channel, Math.min(start + chunkBytes, fileSize), fileSize);
+                    long chunkStart = start;
+                    pending.add(pool.submit(() -> parseRange(channel, chunkStart, end, names)));
+                    start = end;
+                }
+                more = start < fileSize;
+                if (pending.isEmpty()) {
+                    break;
+                }
+                if (!consumer.accept(await(pending.poll()))) {
+                    break;
+                }
+            }
+        } finally {
+            pending.forEach(f -> f.cancel(true));
+            pool.shutdownNow();
+        }
+    }
+
+    // Parses the first rows of a file without mapping the rest of it, for previews
+    public static Chunk parseHead(Path file, int maxBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long end = Math.min(maxBytes, fileSize);
+            if (end < fileSize) {
+                // Stop after the last complete line inside the window
+                ByteBuffer head = ByteBuffer.allocate((int) end);
+                channel.read(head, 0);
+                int last = (int) end - 1;
+                while (last >= 0 && head.get(last) != '\n') {
+                    last--;
+                }
+                end = last + 1;
+            }
+            return parseRange(channel, 0, end, new ConcurrentHashMap<>());
+        }
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Returns the offset just past the first newline at or after position, or the end of the file
+    private static long nextLineBoundary(FileChannel channel, long position, long fileSize) throws IOException {
+        if (position >= fileSize) {
+            return fileSize;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long offset = position;
+        while (offset < fileSize) {
+            probe.clear();
+            int n = channel.read(probe, offset);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += n;
+        }
+        return fileSize;
+    }
+
+    private static Chunk parseRange(FileChannel channel, long start, long end, Map<String, String> names)
+            throws IOException {
+        int length = (int) (end - start);
+        Chunk chunk = new Chunk(start, end, length / 32);
+        if (length == 0) {
+            return chunk;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        new RangeParser(buffer, start, names, chunk).run();
+        return chunk;
+    }
+
+    // Single-threaded parser over one mapped range; all positions are relative to the range
+    private static final class RangeParser {
+        private final ByteBuffer buf;
+        private final long base;
+        private final Map<String, String> names;
+        private final Chunk chunk;
+        private final NameTable nameTable = new NameTable();
+
+        // Bounds of the field last read by nextField
+        private int fieldStart;
+        private int fieldEnd;
+        private boolean fieldEscaped;
+        private String error;
+        private int errorPos;
+
+        RangeParser(ByteBuffer buf, long base, Map<String, String> names, Chunk chunk) {
+            this.buf = buf;
+            this.base = base;
+            this.names = names;
+            this.chunk = chunk;
+        }
+
+        void run() {
+            int limit = buf.limit();
+            int pos = 0;
+            if (base == 0) {
+                pos = lineEnd(0, limit) + 1; // Skip header
+            }
+            while (pos < limit) {
+                int newline = lineEnd(pos, limit);
+                int contentEnd = newline;
+                if (contentEnd > pos && buf.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                if (!isBlank(pos, contentEnd)) {
+                    parseLine(pos, contentEnd);
+                }
+                pos = newline + 1;
+            }
+        }
+
+        private void parseLine(int pos, int end) {
+            error = null;
+            String product = null;
+            long epochDay = 0;
+            int quantity = 0;
+            double revenue = 0;
+            int sold = 0;
+            int remaining = 0;
+
+            for (int field = 0; field < FIELDS; field++) {
+                if (pos > end) {
+                    fail(end, "expected " + FIELDS + " fields, found " + field);
+                    break;
+                }
+                pos = nextField(pos, end);
+                if (error != null) break;
+                switch (field) {
+                    case 0: product = productName(); break;
+                    case 1: epochDay = parseDate(); break;
+                    case 2: quantity = parseInt(); break;
+                    case 3: revenue = parseDouble(); break;
+                    case 4: sold = parseInt(); break;
+                    default: remaining = parseInt(); break;
+                }
+                if (error != null) break;
+            }
+
+            if (error != null) {
+                chunk.error(base + errorPos, error);
+            } else {
+                chunk.add(product, epochDay, quantity, revenue, sold, remaining);
+            }
+        }
+
+        // Reads the field starting at pos and returns the position after its delimiter,
+        // or end + 1 when it was the last field on the line
+        private int nextField(int pos, int end) {
+            pos = skipBlanks(pos, end);
+            fieldEscaped = false;
+            if (pos < end && buf.get(pos) == '"') {
+                int q = pos + 1;
+                while (true) {
+                    if (q >= end) {
+                        fail(pos, "unterminated quoted field");
+                        return end + 1;
+                    }
+                    if (buf.get(q) == '"') {
+                        if (q + 1 < end && buf.get(q + 1) == '"') {
+                            fieldEscaped = true;
+                            q += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    q++;
+                }
+                fieldStart = pos + 1;
+                fieldEnd = q;
+                int after = skipBlanks(q + 1, end);
+                if (after < end && buf.get(after) != ',') {
+                    fail(after, "unexpected character after quoted field");
+                    return end + 1;
+                }
+                return after + 1;
+            }
+
+            int q = pos;
+            while (q < end && buf.get(q) != ',') {
+                q++;
+            }
+            int e = q;
+            while (e > pos && isBlank(buf.get(e - 1))) {
+                e--;
+            }
+            fieldStart = pos;
+            fieldEnd = e;
+            return q + 1;
+        }
+
+        private String productName() {
+            if (fieldStart == fieldEnd) {
+                fail(fieldStart, "empty product name");
+                return null;
+            }
+            if (fieldEscaped) {
+                // Rare enough that collapsing "" into a fresh array is fine
+                byte[] bytes = new byte[fieldEnd - fieldStart];
+                int n = 0;
+                for (int i = fieldStart; i < fieldEnd; i++) {
+                    byte b = buf.get(i);
+                    bytes[n++] = b;
+                    if (b == '"') i++;
+                }
+                return intern(new String(bytes, 0, n, StandardCharsets.UTF_8));
+            }
+            return nameTable.lookup(fieldStart, fieldEnd);
+        }
+
+        private String intern(String name) {
+            String existing = names.putIfAbsent(name, name);
+            return existing != null ? existing : name;
+        }
+
+        // yyyy-MM-dd to epoch day, using the days-from-civil calculation
+        private long parseDate() {
+            int p = fieldStart;
+            if (fieldEnd - p != 10 || buf.get(p + 4) != '-' || buf.get(p + 7) != '-') {
+                fail(p, "expected date as yyyy-MM-dd");
+                return 0;
+            }
+            int year = digits(p, 4);
+            int month = digits(p + 5, 2);
+            int day = digits(p + 8, 2);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+                fail(p, "invalid date");
+                return 0;
+            }
+            long y = month <= 2 ? year - 1 : year;
+            long era = (y >= 0 ? y : y - 399) / 400;
+            long yoe = y - era * 400;
+            long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+            long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+            return era * 146097 + doe - 719468;
+        }
+
+        private int digits(int p, int count) {
+            int value = 0;
+            for (int i = p; i < p + count; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) return -1;
+                value = value * 10 + d;
+            }
+            return value;
+        }
+
+        private int parseInt() {
+            int p = fieldStart;
+            boolean negative = false;
+            if (p < fieldEnd && (buf.get(p) == '-' || buf.get(p) == '+')) {
+                negative = buf.get(p) == '-';
+                p++;
+            }
+            if (p == fieldEnd) {
+                fail(fieldStart, "expected an integer");
+                return 0;
+            }
+            long value = 0;
+            for (; p < fieldEnd; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) {
+                    fail(p, "expected an integer");
+                    return 0;
+                }
+                value = value * 10 + d;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    fail(fieldStart, "integer out of range");
+                    return 0;
+                }
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                fail(fieldStart, "integer out of range");
+                return 0;
+            }
+            return (int) value;
+        }
+
+        // Plain decimals are parsed as mantissa / 10^scale, which is exact-then-rounded while the
+        // mantissa fits in 53 bits; anything longer or with an exponent goes to Double.parseDouble
+        private double parseDouble() {
+            int p = fieldStart;
+            boolean negative = false;
+            if (p < fieldEnd && (buf.get(p) == '-' || buf.get(p) == '+')) {
+                negative = buf.get(p) == '-';
+                p++;
+            }
+            long mantissa = 0;
+            int scale = 0;
+            int significant = 0;
+            boolean seenPoint = false;
+            boolean seenDigit = false;
+            for (; p < fieldEnd; p++) {
+                byte b = buf.get(p);
+                if (b >= '0' && b <= '9') {
+                    seenDigit = true;
+                    if (seenPoint) scale++;
+                    if (significant == 0 && b == '0') continue; // Leading zeros
+                    if (++significant > 18) return slowDouble();
+                    mantissa = mantissa * 10 + (b - '0');
+                } else if (b == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else if (b == 'e' || b == 'E') {
+                    return slowDouble();
+                } else {
+                    fail(p, "expected a number");
+                    return 0;
+                }
+            }
+            if (!seenDigit) {
+                fail(fieldStart, "expected a number");
+                return 0;
+            }
+            if (mantissa > MAX_EXACT_MANTISSA || scale >= POW10.length) {
+                return slowDouble();
+            }
+            double value = mantissa / POW10[scale];
+            return negative ? -value : value;
+        }
+
+        private double slowDouble() {
+            byte[] bytes = new byte[fieldEnd - fieldStart];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buf.get(fieldStart + i);
+            }
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                fail(fieldStart, "expected a number");
+                return 0;
+            }
+        }
+
+        private void fail(int pos, String message) {
+            if (error == null) {
+                error = message;
+                errorPos = pos;
+            }
+        }
+
+        private int lineEnd(int pos, int limit) {
+            while (pos < limit && buf.get(pos) != '\n') {
+                pos++;
+            }
+            return pos;
+        }
+
+        private int skipBlanks(int pos, int end) {
+            while (pos < end && isBlank(buf.get(pos))) {
+                pos++;
+            }
+            return pos;
+        }
+
+        private boolean isBlank(int from, int to) {
+            return skipBlanks(from, to) == to;
+        }
+
+        private static boolean isBlank(byte b) {
+            return b >= 0 && b <= ' ';
+        }
+
+        private static int daysInMonth(int year, int month) {
+            switch (month) {
+                case 2:
+                    boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                    return leap ? 29 : 28;
+                case 4: case 6: case 9: case 11:
+                    return 30;
+                default:
+                    return 31;
+            }
+        }
+
+        // Open-addressing table from raw name bytes to their shared String, so repeated
+        // product names cost a hash and a byte compare rather than a String each
+        private final class NameTable {
+            private byte[][] keys = new byte[64][];
+            private String[] values = new String[64];
+            private int count;
+
+            String lookup(int from, int to) {
+                int hash = 1;
+                for (int i = from; i < to; i++) {
+                    hash = 31 * hash + buf.get(i);
+                }
+                int mask = keys.length - 1;
+                int slot = mix(hash) & mask;
+                while (keys[slot] != null) {
+                    if (matches(keys[slot], from, to)) {
+                        return values[slot];
+                    }
+                    slot = (slot + 1) & mask;
+                }
+
+                byte[] key = new byte[to - from];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = buf.get(from + i);
+                }
+                String name = intern(new String(key, StandardCharsets.UTF_8));
+                keys[slot] = key;
+                values[slot] = name;
+                if (++count * 2 > keys.length) {
+                    grow();
+                }
+                return name;
+            }
+
+            private boolean matches(byte[] key, int from, int to) {
+                if (key.length != to - from) return false;
+                for (int i = 0; i < key.length; i++) {
+                    if (key[i] != buf.get(from + i)) return false;
+                }
+                return true;
+            }
+
+            private void grow() {
+                byte[][] oldKeys = keys;
+                String[] oldValues = values;
+                keys = new byte[oldKeys.length * 2][];
+                values = new String[oldKeys.length * 2];
+                int mask = keys.length - 1;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] == null) continue;
+                    int hash = 1;
+                    for (byte b : oldKeys[i]) {
+                        hash = 31 * hash + b;
+                    }
+                    int slot = mix(hash) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+
+            private int mix(int hash) {
+                return hash ^ (hash >>> 16);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.inventory.service;
+
+import com.inventory.model.SalesData;
+
+import java.util.List;
+import java.util.Objects;
+
+// Summary of the sales rows a fitted state was built from: how many there were, the latest sale date and
+// the total quantity. The database returns the same three values per item in one grouped query, so a
+// state saved by an earlier run can be checked against the rows as they are now.
+final class SalesFingerprint {
+    final long rows;
+    final long lastEpochDay;
+    final long quantityTotal;
+
+    SalesFingerprint(long rows, long lastEpochDay, long quantityTotal) {
+        this.rows = rows;
+        this.lastEpochDay = lastEpochDay;
+        this.quantityTotal = quantityTotal;
+    }
+
+    // history must not be empty
+    static SalesFingerprint of(List<SalesData> history) {
+        long last = Long.MIN_VALUE;
+        long quantity = 0;
+        for (SalesData sale : history) {
+            last = Math.max(last, sale.getSaleDate().toEpochDay());
+            quantity += sale.getQuantity();
+        }
+        return new SalesFingerprint(history.size(), last, quantity);
+    }
+
+    // The fingerprint after appending rows dated up to lastEpochDay with the given total quantity
+    SalesFingerprint plus(int rows, long lastEpochDay, long quantity) {
+        return new SalesFingerprint(this.rows + rows, Math.max(this.lastEpochDay, lastEpochDay),
+                quantityTotal + quantity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SalesFingerprint)) return false;
+        SalesFingerprint other = (SalesFingerprint) o;
+        return rows == other.rows && lastEpochDay == other.lastEpochDay && quantityTotal == other.quantityTotal;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rows, lastEpochDay, quantityTotal);
+    }
+
+    @Override
+    public String toString() {
+        return rows + " rows to day " + lastEpochDay + ", quantity " + quantityTotal;
+    }
+}
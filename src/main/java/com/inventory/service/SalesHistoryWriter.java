@@ -0,0 +1,296 @@
+package com.inventory.service;
+
+import com.inventory.model.SalesData;
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+// Bulk writer for sales_history. Rows are written in chunks of chunkSize, each chunk committed on its own,
+// so a failure loses at most the chunk in flight and the exception says how many rows were committed.
+//   BATCH      one PreparedStatement.addBatch per row (one round trip per row unless the URL sets
+//              rewriteBatchedStatements=true)
+//   MULTI_ROW  explicit INSERT ... VALUES (...), (...) statements of rowsPerStatement rows each
+//   LOAD_DATA  LOAD DATA LOCAL INFILE fed from an in-memory buffer; needs allowLoadLocalInfile=true on
+//              the JDBC URL and local_infile enabled on the server
+// In every mode a row whose (item_id, sale_date) is already stored fails the chunk on the unique key.
+public class SalesHistoryWriter {
+
+    public enum Mode { BATCH, MULTI_ROW, LOAD_DATA }
+
+    private static final String INSERT_PREFIX = "INSERT INTO sales_history (item_id, quantity, revenue, sale_date) VALUES ";
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), revenue = VALUES(revenue)";
+    // LOCAL loads only warn about duplicate keys, so IGNORE states that and loadData checks the count
+    private static final String LOAD_DATA_SQL = "LOAD DATA LOCAL INFILE 'sales_history.tsv' IGNORE INTO TABLE sales_history "
+            + "FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n' (item_id, quantity, revenue, sale_date)";
+    private static final int ER_DUP_ENTRY = 1062;
+    // MySQL allows at most 65535 placeholders per statement, four per row
+    private static final int MAX_ROWS_PER_STATEMENT = 65535 / 4;
+
+    private final DatabaseService dbService;
+    private Mode mode = Mode.MULTI_ROW;
+    private int chunkSize = 5000;
+    private int rowsPerStatement = 1000;
+
+    public SalesHistoryWriter(DatabaseService dbService) {
+        this.dbService = dbService;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public void setRowsPerStatement(int rowsPerStatement) {
+        if (rowsPerStatement < 1 || rowsPerStatement > MAX_ROWS_PER_STATEMENT) {
+            throw new IllegalArgumentException("Rows per statement must be between 1 and " + MAX_ROWS_PER_STATEMENT);
+        }
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    // Adds allowLoadLocalInfile=true to a MySQL URL, for connections used in LOAD_DATA mode
+    public static String withLocalInfile(String url) {
+        if (url.contains("allowLoadLocalInfile=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "allowLoadLocalInfile=true";
+    }
+
+    // Writes all rows, committing after every chunk. Returns the number of rows written.
+    public long write(List<SalesData> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        if (dbService.isUsingSampleData()) {
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                dbService.insertSalesHistory(rows.subList(from, Math.min(from + chunkSize, rows.size())));
+            }
+            return rows.size();
+        }
+
+        long committed = 0;
+        try (Connection conn = dbService.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < rows.size(); from += chunkSize) {
+                    List<SalesData> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+                    int written = insert(conn, chunk);
+                    conn.commit();
+                    committed += written;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to write sales history after " + committed + " of "
+                    + rows.size() + " rows were committed: " + e.getMessage());
+        }
+        return committed;
+    }
+
+    // Inserts rows on the caller's connection and transaction, without committing. Returns the number of
+    // rows inserted.
+    public int insert(Connection conn, List<SalesData> rows) throws SQLException {
+        return insert(conn, null, rows);
+    }
+
+    // Same, but stores every row under itemId whatever the rows carry, as the per-item updates do
+    int insert(Connection conn, Integer itemId, List<SalesData> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        switch (mode) {
+            case BATCH:
+                return insertBatched(conn, itemId, rows);
+            case MULTI_ROW:
+                return insertMultiRow(conn, itemId, rows, "");
+            default:
+                return loadData(conn, itemId, rows);
+        }
+    }
+
+    // Inserts rows under itemId on the caller's transaction, overwriting quantity and revenue where the item
+    // already has a row for the date. Always uses multi-row statements. Returns MySQL's affected-row count.
+    int upsert(Connection conn, int itemId, List<SalesData> rows) throws SQLException {
+        return insertMultiRow(conn, itemId, rows, UPSERT_SUFFIX);
+    }
+
+    private int insertBatched(Connection conn, Integer itemId, List<SalesData> rows) throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_PREFIX + "(?, ?, ?, ?)")) {
+            int pending = 0;
+            for (SalesData data : rows) {
+                bind(stmt, 0, itemId, data);
+                stmt.addBatch();
+                if (++pending == rowsPerStatement) {
+                    inserted += sum(stmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) inserted += sum(stmt.executeBatch());
+        }
+        return inserted;
+    }
+
+    // A rewritten batch reports SUCCESS_NO_INFO for each row; a failed row throws instead
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return total;
+    }
+
+    // Multi-row INSERTs of rowsPerStatement rows, each followed by suffix. Returns the summed affected-row count.
+    private int insertMultiRow(Connection conn, Integer itemId, List<SalesData> rows, String suffix)
+            throws SQLException {
+        int affected = 0;
+        int fullStatements = rows.size() / rowsPerStatement;
+        int remainder = rows.size() % rowsPerStatement;
+        int index = 0;
+
+        if (fullStatements > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(multiRowInsert(rowsPerStatement) + suffix)) {
+                for (int s = 0; s < fullStatements; s++) {
+                    for (int r = 0; r < rowsPerStatement; r++) {
+                        bind(stmt, r * 4, itemId, rows.get(index++));
+                    }
+                    affected += stmt.executeUpdate();
+                }
+            }
+        }
+        if (remainder > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(multiRowInsert(remainder) + suffix)) {
+                for (int r = 0; r < remainder; r++) {
+                    bind(stmt, r * 4, itemId, rows.get(index++));
+                }
+                affected += stmt.executeUpdate();
+            }
+        }
+        return affected;
+    }
+
+    private static String multiRowInsert(int rowCount) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rowCount * 15);
+        sql.append(INSERT_PREFIX);
+        for (int r = 0; r < rowCount; r++) {
+            if (r > 0) sql.append(", ");
+            sql.append("(?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement stmt, int offset, Integer itemId, SalesData data) throws SQLException {
+        stmt.setInt(offset + 1, itemId != null ? itemId : data.getItemId());
+        stmt.setInt(offset + 2, data.getQuantity());
+        stmt.setDouble(offset + 3, data.getRevenue());
+        stmt.setDate(offset + 4, java.sql.Date.valueOf(data.getSaleDate()));
+    }
+
+    private int loadData(Connection conn, Integer itemId, List<SalesData> rows) throws SQLException {
+        TsvBuffer buffer = new TsvBuffer(rows.size() * 32);
+        for (SalesData data : rows) {
+            buffer.appendRow(itemId != null ? itemId : data.getItemId(), data);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            if (!stmt.isWrapperFor(JdbcStatement.class)) {
+                throw new SQLException("LOAD_DATA mode needs a MySQL Connector/J connection");
+            }
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(buffer.toInputStream());
+            stmt.execute(LOAD_DATA_SQL);
+            int loaded = stmt.getUpdateCount();
+            if (loaded != rows.size()) {
+                // Skipped rows are duplicate keys, as the other modes would have failed on
+                SQLWarning warning = stmt.getWarnings();
+                throw new SQLException("LOAD DATA skipped " + (rows.size() - loaded) + " of " + rows.size()
+                        + " rows" + (warning != null ? ": " + warning.getMessage() : ""), "23000", ER_DUP_ENTRY);
+            }
+            return loaded;
+        }
+    }
+
+    // Tab-separated rows written straight as ASCII bytes, revenue at cent precision like DECIMAL(10,2)
+    private static final class TsvBuffer {
+        private byte[] bytes;
+        private int length;
+
+        TsvBuffer(int capacity) {
+            bytes = new byte[Math.max(64, capacity)];
+        }
+
+        void appendRow(int itemId, SalesData data) {
+            ensureCapacity(64);
+            appendLong(itemId);
+            bytes[length++] = '\t';
+            appendLong(data.getQuantity());
+            bytes[length++] = '\t';
+            long cents = Math.round(data.getRevenue() * 100.0);
+            if (cents < 0) {
+                bytes[length++] = '-';
+                cents = -cents;
+            }
+            appendLong(cents / 100);
+            bytes[length++] = '.';
+            bytes[length++] = (byte) ('0' + (cents % 100) / 10);
+            bytes[length++] = (byte) ('0' + cents % 10);
+            bytes[length++] = '\t';
+            String date = data.getSaleDate().toString();
+            for (int i = 0; i < date.length(); i++) {
+                bytes[length++] = (byte) date.charAt(i);
+            }
+            bytes[length++] = '\n';
+        }
+
+        private void appendLong(long value) {
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            // Digits were written least significant first
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        ByteArrayInputStream toInputStream() {
+            return new ByteArrayInputStream(bytes, 0, length);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.inventory.service;
+
+import com.inventory.model.SalesData;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+// Streams a sales CSV (product, date, quantity, revenue, sold, remaining) into the database in batches.
+// The caller's thread parses (SalesCsvParser, in parallel chunks) and a writer thread merges batches through ForecastService.updateSalesData;
+// the queue between them is bounded, so parsing waits for the database instead of piling rows up in memory.
+public class SalesIngestionService {
+
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, long rows, long rejected);
+    }
+
+    public static final class Summary {
+        private final Map<String, Integer> productIdMap;
+        private final Map<Integer, Integer> latestRemaining;
+        private final long rows;
+        private final long rowsWritten;
+        private final long rejected;
+        private final String firstError;
+        private final MergeResult mergeResult;
+        private final boolean cancelled;
+        private final long elapsedMillis;
+
+        Summary(Map<String, Integer> productIdMap, Map<Integer, Integer> latestRemaining, long rows, long rowsWritten,
+                long rejected, String firstError, MergeResult mergeResult, boolean cancelled, long elapsedMillis) {
+            this.productIdMap = productIdMap;
+            this.latestRemaining = latestRemaining;
+            this.rows = rows;
+            this.rowsWritten = rowsWritten;
+            this.rejected = rejected;
+            this.firstError = firstError;
+            this.mergeResult = mergeResult;
+            this.cancelled = cancelled;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Map<String, Integer> getProductIdMap() { return productIdMap; }
+        // Remaining stock from each product's last row in the file
+        public Map<Integer, Integer> getLatestRemaining() { return latestRemaining; }
+        public long getRows() { return rows; }
+        // Rows merged into the database. Each batch commits on its own, so after a cancel these rows stay
+        // stored; rows parsed but not yet sent to the writer are dropped.
+        public long getRowsWritten() { return rowsWritten; }
+        public long getRejected() { return rejected; }
+        public String getFirstError() { return firstError; }
+        public MergeResult getMergeResult() { return mergeResult; }
+        public boolean isCancelled() { return cancelled; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+    }
+
+    private static final Map<Integer, List<SalesData>> END_OF_INPUT = Collections.emptyMap();
+
+    private final ForecastService forecastService;
+    private final SalesCsvParser parser = new SalesCsvParser();
+    private int batchSize = 5000;
+    private int queueCapacity = 4;
+
+    public SalesIngestionService(ForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setParserParallelism(int parallelism) {
+        parser.setParallelism(parallelism);
+    }
+
+    public Summary ingest(File file, ProgressListener listener, BooleanSupplier cancelled) throws IOException {
+        long start = System.currentTimeMillis();
+        long totalBytes = file.length();
+        BlockingQueue<Map<Integer, List<SalesData>>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<MergeResult> merged = new AtomicReference<>(MergeResult.EMPTY);
+        AtomicLong written = new AtomicLong();
+        AtomicReference<RuntimeException> writeFailure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                while (true) {
+                    Map<Integer, List<SalesData>> batch = queue.take();
+                    if (batch == END_OF_INPUT) break;
+                    for (Map.Entry<Integer, List<SalesData>> entry : batch.entrySet()) {
+                        MergeResult result = forecastService.updateSalesData(entry.getKey(), entry.getValue());
+                        merged.updateAndGet(total -> total.plus(result));
+                        written.addAndGet(entry.getValue().size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                writeFailure.set(e);
+                queue.clear(); // Unblock the reader, which stops on the failure
+            }
+        }, "sales-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        Batcher batcher = new Batcher(queue, listener, cancelled, writeFailure, totalBytes);
+        try {
+            parser.parse(file.toPath(), batcher);
+            batcher.flush();
+        } catch (InterruptedException e) {
+            batcher.cancelled = true;
+        } finally {
+            // Batches already queued are still written and counted in the summary
+            finishWriter(queue, writer);
+        }
+
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+        forecastService.snapshotModelState();
+
+        return new Summary(batcher.productIdMap, batcher.latestRemaining, batcher.rows, written.get(),
+                batcher.rejected, batcher.firstError, merged.get(), batcher.cancelled, System.currentTimeMillis() - start);
+    }
+
+    // Waits out the writer even when interrupted, so no merge is left running behind the caller
+    private static void finishWriter(BlockingQueue<Map<Integer, List<SalesData>>> queue, Thread writer) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (writer.isAlive() && !queue.offer(END_OF_INPUT, 100, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Turns parsed chunks into per-product batches for the writer, numbering products in file order
+    private final class Batcher implements SalesCsvParser.ChunkConsumer {
+        private final BlockingQueue<Map<Integer, List<SalesData>>> queue;
+        private final ProgressListener listener;
+        private final BooleanSupplier cancelRequested;
+        private final AtomicReference<RuntimeException> writeFailure;
+        private final long totalBytes;
+
+        final Map<String, Integer> productIdMap = new LinkedHashMap<>();
+        final Map<Integer, Integer> latestRemaining = new HashMap<>();
+        long rows;
+        long rejected;
+        String firstError;
+        boolean cancelled;
+        private Map<Integer, List<SalesData>> batch = new HashMap<>();
+        private int batchRows;
+
+        Batcher(BlockingQueue<Map<Integer, List<SalesData>>> queue, ProgressListener listener,
+                BooleanSupplier cancelRequested, AtomicReference<RuntimeException> writeFailure, long totalBytes) {
+            this.queue = queue;
+            this.listener = listener;
+            this.cancelRequested = cancelRequested;
+            this.writeFailure = writeFailure;
+            this.totalBytes = totalBytes;
+        }
+
+        @Override
+        public boolean accept(SalesCsvParser.Chunk chunk) throws InterruptedException {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (writeFailure.get() != null) {
+                    return false;
+                }
+                String productName = chunk.product(i);
+
+                // Get or create product ID
+                Integer productId = productIdMap.get(productName);
+                if (productId == null) {
+                    productId = productIdMap.size() + 1;
+                    productIdMap.put(productName, productId);
+                }
+
+                SalesData data = new SalesData(0, productId, productName, chunk.quantity(i), chunk.revenue(i),
+                        LocalDate.ofEpochDay(chunk.epochDay(i)), chunk.sold(i), chunk.remaining(i));
+                batch.computeIfAbsent(productId, k -> new ArrayList<>()).add(data);
+                latestRemaining.put(productId, chunk.remaining(i));
+                rows++;
+
+                if (++batchRows >= batchSize) {
+                    queue.put(batch); // Blocks while the writer is behind
+                    batch = new HashMap<>();
+                    batchRows = 0;
+                }
+            }
+
+            rejected += chunk.getErrorCount();
+            if (firstError == null && !chunk.getErrors().isEmpty()) {
+                firstError = chunk.getErrors().get(0).toString();
+            }
+            listener.onProgress(chunk.getEndOffset(), totalBytes, rows, rejected);
+
+            if (cancelRequested.getAsBoolean()) {
+                cancelled = true;
+                return false;
+            }
+            return true;
+        }
+
+        void flush() throws InterruptedException {
+            if (!batch.isEmpty() && !cancelled && writeFailure.get() == null) {
+                queue.put(batch);
+            }
+        }
+    }
+}
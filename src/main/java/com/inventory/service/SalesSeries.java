@@ -0,0 +1,80 @@
+package com.inventory.service;
+
+import com.inventory.model.SalesData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Compact, date-ordered view of one item's sales history. Built once per forecast so the numeric code
+// works on primitive arrays instead of boxed values and property getters.
+final class SalesSeries {
+    final int size;
+    final int[] quantities;
+    final double[] revenues;
+    final int[] epochDays;
+    final byte[] daysOfMonth; // 1-31
+    final byte[] daysOfWeek;  // 1 (Monday) - 7 (Sunday)
+    final byte[] months;      // 1-12
+
+    private SalesSeries(int size) {
+        this.size = size;
+        this.quantities = new int[size];
+        this.revenues = new double[size];
+        this.epochDays = new int[size];
+        this.daysOfMonth = new byte[size];
+        this.daysOfWeek = new byte[size];
+        this.months = new byte[size];
+    }
+
+    static SalesSeries of(List<SalesData> data) {
+        List<SalesData> ordered = data;
+        for (int i = 1; i < data.size(); i++) {
+            if (data.get(i).getSaleDate().isBefore(data.get(i - 1).getSaleDate())) {
+                ordered = new ArrayList<>(data);
+                ordered.sort(Comparator.comparing(SalesData::getSaleDate));
+                break;
+            }
+        }
+
+        SalesSeries series = new SalesSeries(ordered.size());
+        for (int i = 0; i < series.size; i++) {
+            SalesData sale = ordered.get(i);
+            LocalDate date = sale.getSaleDate();
+            series.quantities[i] = sale.getQuantity();
+            series.revenues[i] = sale.getRevenue();
+            series.epochDays[i] = (int) date.toEpochDay();
+            series.daysOfMonth[i] = (byte) date.getDayOfMonth();
+            series.daysOfWeek[i] = (byte) dayOfWeek(series.epochDays[i]);
+            series.months[i] = (byte) date.getMonthValue();
+        }
+        return series;
+    }
+
+    // Quantity for every day from the first sale to the last, for models that need evenly spaced
+    // points; days without a row sold nothing
+    static double[] daily(int[] epochDays, int[] quantities) {
+        int first = epochDays[0];
+        double[] daily = new double[epochDays[epochDays.length - 1] - first + 1];
+        for (int i = 0; i < epochDays.length; i++) {
+            daily[epochDays[i] - first] += quantities[i];
+        }
+        return daily;
+    }
+
+    // Adds each row's quantity to the entry of sold for its day, sold[0] being firstEpochDay; rows outside
+    // sold are skipped
+    static void sold(int[] epochDays, int[] quantities, long firstEpochDay, double[] sold) {
+        int i = Arrays.binarySearch(epochDays, (int) Math.max(Integer.MIN_VALUE, firstEpochDay));
+        for (i = i < 0 ? -i - 1 : i; i < epochDays.length && epochDays[i] - firstEpochDay < sold.length; i++) {
+            sold[(int) (epochDays[i] - firstEpochDay)] += quantities[i];
+        }
+    }
+
+    // ISO day of week without building a LocalDate; 1970-01-01 was a Thursday
+    static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+}
@@ -0,0 +1,187 @@
+package com.inventory.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Sufficient statistics for one item's forecast, gathered in a single pass: count, means, second moments
+// and the x/y co-moment for the linear trend (Welford-style updates, so long histories do not lose
+// precision), plus quantity sums per day of month, day of week and month for the seasonal factors.
+// Two instances built over disjoint chunks of a series can be merged into the statistics of the whole.
+final class SeriesStats {
+    private long count;
+    private double meanX;
+    private double meanY;
+    private double m2X;
+    private double m2Y;
+    private double cXY;
+    private final long[] dayOfMonthSums = new long[32];
+    private final int[] dayOfMonthCounts = new int[32];
+    private final long[] dayOfWeekSums = new long[8];
+    private final int[] dayOfWeekCounts = new int[8];
+    private final long[] monthSums = new long[13];
+    private final int[] monthCounts = new int[13];
+
+    // x is the point's position in the series, y its quantity
+    void add(double x, int y, int dayOfMonth, int dayOfWeek, int month) {
+        count++;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX += dx / count;
+        meanY += dy / count;
+        m2X += dx * (x - meanX);
+        m2Y += dy * (y - meanY);
+        cXY += dx * (y - meanY);
+
+        dayOfMonthSums[dayOfMonth] += y;
+        dayOfMonthCounts[dayOfMonth]++;
+        dayOfWeekSums[dayOfWeek] += y;
+        dayOfWeekCounts[dayOfWeek]++;
+        monthSums[month] += y;
+        monthCounts[month]++;
+    }
+
+    void addAll(SalesSeries series, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(i, series.quantities[i], series.daysOfMonth[i], series.daysOfWeek[i], series.months[i]);
+        }
+    }
+
+    // Combines the statistics of another chunk into this one (Chan et al. pairwise update)
+    void merge(SeriesStats other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            copyFrom(other);
+            return;
+        }
+        long n = count + other.count;
+        double dx = other.meanX - meanX;
+        double dy = other.meanY - meanY;
+        double weight = (double) count * other.count / n;
+        meanX += dx * other.count / n;
+        meanY += dy * other.count / n;
+        m2X += other.m2X + dx * dx * weight;
+        m2Y += other.m2Y + dy * dy * weight;
+        cXY += other.cXY + dx * dy * weight;
+        count = n;
+
+        for (int i = 0; i < dayOfMonthSums.length; i++) {
+            dayOfMonthSums[i] += other.dayOfMonthSums[i];
+            dayOfMonthCounts[i] += other.dayOfMonthCounts[i];
+        }
+        for (int i = 0; i < dayOfWeekSums.length; i++) {
+            dayOfWeekSums[i] += other.dayOfWeekSums[i];
+            dayOfWeekCounts[i] += other.dayOfWeekCounts[i];
+        }
+        for (int i = 0; i < monthSums.length; i++) {
+            monthSums[i] += other.monthSums[i];
+            monthCounts[i] += other.monthCounts[i];
+        }
+    }
+
+    SeriesStats copy() {
+        SeriesStats copy = new SeriesStats();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    private void copyFrom(SeriesStats other) {
+        count = other.count;
+        meanX = other.meanX;
+        meanY = other.meanY;
+        m2X = other.m2X;
+        m2Y = other.m2Y;
+        cXY = other.cXY;
+        System.arraycopy(other.dayOfMonthSums, 0, dayOfMonthSums, 0, dayOfMonthSums.length);
+        System.arraycopy(other.dayOfMonthCounts, 0, dayOfMonthCounts, 0, dayOfMonthCounts.length);
+        System.arraycopy(other.dayOfWeekSums, 0, dayOfWeekSums, 0, dayOfWeekSums.length);
+        System.arraycopy(other.dayOfWeekCounts, 0, dayOfWeekCounts, 0, dayOfWeekCounts.length);
+        System.arraycopy(other.monthSums, 0, monthSums, 0, monthSums.length);
+        System.arraycopy(other.monthCounts, 0, monthCounts, 0, monthCounts.length);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(meanX);
+        out.writeDouble(meanY);
+        out.writeDouble(m2X);
+        out.writeDouble(m2Y);
+        out.writeDouble(cXY);
+        writeBuckets(out, dayOfMonthSums, dayOfMonthCounts);
+        writeBuckets(out, dayOfWeekSums, dayOfWeekCounts);
+        writeBuckets(out, monthSums, monthCounts);
+    }
+
+    static SeriesStats readFrom(DataInput in) throws IOException {
+        SeriesStats stats = new SeriesStats();
+        stats.count = in.readLong();
+        stats.meanX = in.readDouble();
+        stats.meanY = in.readDouble();
+        stats.m2X = in.readDouble();
+        stats.m2Y = in.readDouble();
+        stats.cXY = in.readDouble();
+        readBuckets(in, stats.dayOfMonthSums, stats.dayOfMonthCounts);
+        readBuckets(in, stats.dayOfWeekSums, stats.dayOfWeekCounts);
+        readBuckets(in, stats.monthSums, stats.monthCounts);
+        return stats;
+    }
+
+    private static void writeBuckets(DataOutput out, long[] sums, int[] counts) throws IOException {
+        for (int i = 0; i < sums.length; i++) {
+            out.writeLong(sums[i]);
+            out.writeInt(counts[i]);
+        }
+    }
+
+    private static void readBuckets(DataInput in, long[] sums, int[] counts) throws IOException {
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = in.readLong();
+            counts[i] = in.readInt();
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return count == 0 ? 0.0 : meanY;
+    }
+
+    // Population variance, as used for the confidence band
+    double variance() {
+        return count == 0 ? 0.0 : m2Y / count;
+    }
+
+    double slope() {
+        return m2X == 0 ? 0.0 : cXY / m2X;
+    }
+
+    double intercept() {
+        return meanY - slope() * meanX;
+    }
+
+    // Average quantity on a day of month (1-31) relative to the overall average; 1.0 without data
+    double dayOfMonthFactor(int dayOfMonth) {
+        return factor(dayOfMonthSums[dayOfMonth], dayOfMonthCounts[dayOfMonth]);
+    }
+
+    // Same for an ISO day of week (1-7)
+    double dayOfWeekFactor(int dayOfWeek) {
+        return factor(dayOfWeekSums[dayOfWeek], dayOfWeekCounts[dayOfWeek]);
+    }
+
+    // Average quantity per calendar month (index 1-12), or -1 for months without sales
+    double[] monthlyAverages() {
+        double[] averages = new double[13];
+        for (int m = 0; m < averages.length; m++) {
+            averages[m] = monthCounts[m] == 0 ? -1 : (double) monthSums[m] / monthCounts[m];
+        }
+        return averages;
+    }
+
+    private double factor(long sum, int n) {
+        double overallAverage = count == 0 ? 1.0 : meanY;
+        return n == 0 ? 1.0 : ((double) sum / n) / overallAverage;
+    }
+}
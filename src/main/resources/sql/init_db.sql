@@ -15,16 +15,42 @@ CREATE TABLE IF NOT EXISTS inventory_items (
 );
 
 -- Create sales history table
+-- item_id is not a foreign key: MySQL does not support foreign keys on partitioned tables
 CREATE TABLE IF NOT EXISTS sales_history (
-    id INT PRIMARY KEY AUTO_INCREMENT,
+    id INT NOT NULL AUTO_INCREMENT,
     item_id INT NOT NULL,
     quantity INT NOT NULL,
     revenue DECIMAL(10,2) NOT NULL,
     sale_date DATE NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (item_id) REFERENCES inventory_items(id)
+    PRIMARY KEY (id, sale_date),
+    UNIQUE KEY uq_sales_history_item_date (item_id, sale_date),
+    INDEX idx_sales_history_item_date (item_id, sale_date, quantity, revenue)
+)
+PARTITION BY RANGE COLUMNS (sale_date) (
+    PARTITION p2020 VALUES LESS THAN ('2021-01-01'),
+    PARTITION p2021 VALUES LESS THAN ('2022-01-01'),
+    PARTITION p2022 VALUES LESS THAN ('2023-01-01'),
+    PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+    PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+CREATE TABLE IF NOT EXISTS schema_version (
+    version INT PRIMARY KEY,
+    script VARCHAR(255) NOT NULL,
+    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- This script already creates the latest schema, so mark the migrations as applied
+INSERT IGNORE INTO schema_version (version, script) VALUES
+(1, 'V1__baseline.sql'),
+(2, 'V2__sales_history_index_and_partitions.sql'),
+(3, 'V3__sales_history_unique_item_date.sql');
+
 -- Insert sample inventory data
 INSERT INTO inventory_items (name, quantity, price, reorder_level, category) VALUES
 ('Laptop', 15, 999.99, 5, 'Electronics'),
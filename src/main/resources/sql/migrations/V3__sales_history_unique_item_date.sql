@@ -0,0 +1,11 @@
+-- One row per item and day, so concurrent uploads cannot both insert the same date and merges can upsert.
+-- Earlier versions could store duplicates; keep the most recently inserted row of each pair.
+-- The unique key contains sale_date, as every unique key on the partitioned table must.
+
+DELETE older FROM sales_history older
+    JOIN sales_history newer
+      ON newer.item_id = older.item_id AND newer.sale_date = older.sale_date AND newer.id > older.id;
+
+-- only if: SELECT COUNT(*) = 0 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sales_history' AND INDEX_NAME = 'uq_sales_history_item_date'
+ALTER TABLE sales_history
+    ADD UNIQUE KEY uq_sales_history_item_date (item_id, sale_date);